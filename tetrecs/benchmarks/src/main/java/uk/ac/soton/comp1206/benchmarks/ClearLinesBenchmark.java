@@ -0,0 +1,84 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceGenerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks finding and clearing full lines on boards of different sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClearLinesBenchmark {
+
+    /**
+     * The number of columns and rows of the board
+     */
+    @Param({"5", "16", "32", "64", "128", "256"})
+    public int size;
+
+    /**
+     * The board the engine plays on
+     */
+    private Board board;
+
+    /**
+     * The engine which clears the lines
+     */
+    private GameEngine engine;
+
+    /**
+     * The line which is filled before the next clear
+     */
+    private int line;
+
+    /**
+     * Fill about half of the board, so most lines are not full
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1206);
+        board = new Board(size, size);
+        engine = new GameEngine(board, PieceGenerator.uniform(1206));
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) {
+                    board.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check for full lines when there are none
+     * @return the number of lines cleared
+     */
+    @Benchmark
+    public int clearNoLines() {
+        return engine.clearLines();
+    }
+
+    /**
+     * Fill one row and one column, then clear them
+     * @return the number of lines cleared
+     */
+    @Benchmark
+    public int clearRowAndColumn() {
+        int i = line++ % size;
+        for (int j = 0; j < size; j++) {
+            board.set(j, i, 1);
+            board.set(i, j, 1);
+        }
+        return engine.clearLines();
+    }
+
+}
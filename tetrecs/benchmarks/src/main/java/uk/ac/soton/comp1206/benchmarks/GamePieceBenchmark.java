@@ -0,0 +1,42 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks rotating pieces
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GamePieceBenchmark {
+
+    /**
+     * The piece which is rotated
+     */
+    private GamePiece piece;
+
+    /**
+     * Start with the first piece
+     */
+    @Setup
+    public void setup() {
+        piece = GamePiece.createPiece(1);
+    }
+
+    /**
+     * Rotate the piece once to the right
+     * @return the rotated piece
+     */
+    @Benchmark
+    public GamePiece rotateRight() {
+        piece = piece.rotateRight();
+        return piece;
+    }
+
+}
@@ -0,0 +1,101 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks placement checks and placing pieces on grids of different sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * The number of columns and rows of the grid
+     */
+    @Param({"5", "16", "32", "64", "128", "256"})
+    public int size;
+
+    /**
+     * The grid, with about half of its blocks filled
+     */
+    private Grid grid;
+
+    /**
+     * Coordinates to check, so every call looks at a different part of the grid
+     */
+    private int[] xs;
+
+    /**
+     * Coordinates to check, so every call looks at a different part of the grid
+     */
+    private int[] ys;
+
+    /**
+     * Pieces to check, in every orientation
+     */
+    private GamePiece[] pieces;
+
+    /**
+     * The index of the next coordinate and piece to use
+     */
+    private int next;
+
+    /**
+     * Fill the grid and pick the coordinates and pieces to use
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1206);
+        grid = new Grid(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) {
+                    grid.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+
+        xs = new int[1024];
+        ys = new int[1024];
+        pieces = new GamePiece[1024];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+            pieces[i] = GamePiece.createPiece(random.nextInt(GamePiece.PIECES), random.nextInt(4));
+        }
+    }
+
+    /**
+     * Check whether a piece can be played
+     * @return whether it can be played
+     */
+    @Benchmark
+    public boolean canPlayPiece() {
+        int i = next++ & 1023;
+        return grid.canPlayPiece(xs[i], ys[i], pieces[i]);
+    }
+
+    /**
+     * Play a piece at a point away from the edges, over whatever blocks are already there
+     * @param blackhole consumes the result
+     */
+    @Benchmark
+    public void playPiece(Blackhole blackhole) {
+        int i = next++ & 1023;
+        int x = Math.max(1, Math.min(size - 2, xs[i]));
+        int y = Math.max(1, Math.min(size - 2, ys[i]));
+        grid.playPiece(x, y, pieces[i]);
+        blackhole.consume(grid.get(x, y));
+    }
+
+}
@@ -0,0 +1,121 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.game.BoardCodec;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks turning the state of a grid into a string and back, in the old format and with the BoardCodec
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridStateBenchmark {
+
+    /**
+     * The number of columns and rows of the grid
+     */
+    @Param({"5", "16", "32", "64", "128", "256"})
+    public int size;
+
+    /**
+     * The grid which is encoded
+     */
+    private Grid grid;
+
+    /**
+     * The grid which states are applied to
+     */
+    private Grid receiver;
+
+    /**
+     * The state of the grid in the old format
+     */
+    private String legacyState;
+
+    /**
+     * The state of the grid as a snapshot
+     */
+    private String snapshot;
+
+    /**
+     * Encodes the grid for every send
+     */
+    private BoardCodec codec;
+
+    /**
+     * Fill about half of the grid
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1206);
+        grid = new Grid(size, size);
+        receiver = new Grid(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) {
+                    grid.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+        legacyState = grid.getGridState();
+        snapshot = BoardCodec.encodeSnapshot(grid);
+        codec = new BoardCodec(grid);
+    }
+
+    /**
+     * Get the state in the old format
+     * @return the state
+     */
+    @Benchmark
+    public String getGridState() {
+        return grid.getGridState();
+    }
+
+    /**
+     * Apply a state in the old format
+     * @return the receiving grid
+     */
+    @Benchmark
+    public Grid setGridState() {
+        receiver.setGridState(legacyState);
+        return receiver;
+    }
+
+    /**
+     * Encode a snapshot
+     * @return the snapshot
+     */
+    @Benchmark
+    public String encodeSnapshot() {
+        return BoardCodec.encodeSnapshot(grid);
+    }
+
+    /**
+     * Apply a snapshot
+     * @return the receiving grid
+     */
+    @Benchmark
+    public Grid decodeSnapshot() {
+        receiver.setGridState(snapshot);
+        return receiver;
+    }
+
+    /**
+     * Change one block and encode the change, which is a delta on most sends
+     * @return the encoded state
+     */
+    @Benchmark
+    public String encodeSingleChange() {
+        grid.set(0, 0, grid.get(0, 0) == 1 ? 2 : 1);
+        return codec.encode();
+    }
+
+}
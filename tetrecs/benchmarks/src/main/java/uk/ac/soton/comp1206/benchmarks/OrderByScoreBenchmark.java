@@ -0,0 +1,70 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import javafx.util.Pair;
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.component.ScoresList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ordering lists of scores of different lengths
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderByScoreBenchmark {
+
+    /**
+     * The number of scores in the list
+     */
+    @Param({"10", "100", "1000"})
+    public int scores;
+
+    /**
+     * The list which orders the scores
+     */
+    private ScoresList scoresList;
+
+    /**
+     * The scores, in a random order
+     */
+    private List<Pair<String, Integer>> unordered;
+
+    /**
+     * Make the list of scores
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1206);
+        scoresList = new ScoresList();
+        unordered = new ArrayList<>();
+        for (int i = 0; i < scores; i++) {
+            unordered.add(new Pair<>("Player" + i, random.nextInt(100_000)));
+        }
+    }
+
+    /**
+     * Order the scores from highest to lowest
+     * @return the ordered scores
+     */
+    @Benchmark
+    public List<Pair<String, Integer>> orderByScore() {
+        return scoresList.orderByScore(new ArrayList<>(unordered));
+    }
+
+    /**
+     * Order the scores from highest to lowest, keeping only the top 10 as the scores scene does
+     * @return the top scores
+     */
+    @Benchmark
+    public List<Pair<String, Integer>> orderTopTen() {
+        return scoresList.orderByScore(new ArrayList<>(unordered), 10);
+    }
+
+}
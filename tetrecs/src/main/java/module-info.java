@@ -12,10 +12,14 @@ module uk.ac.soton.comp1206 {
     exports uk.ac.soton.comp1206;
     exports uk.ac.soton.comp1206.ui;
     exports uk.ac.soton.comp1206.network;
+    exports uk.ac.soton.comp1206.score;
     exports uk.ac.soton.comp1206.scene;
     exports uk.ac.soton.comp1206.event;
     exports uk.ac.soton.comp1206.component;
     exports uk.ac.soton.comp1206.game;
+    exports uk.ac.soton.comp1206.game.ai;
+    exports uk.ac.soton.comp1206.game.journal;
+    exports uk.ac.soton.comp1206.simulation;
 
 
 }
\ No newline at end of file
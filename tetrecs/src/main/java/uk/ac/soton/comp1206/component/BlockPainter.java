@@ -0,0 +1,276 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Paints single blocks onto a canvas. Used both by a GameBlock to paint itself and by a GameBoard which draws every
+ * block onto one canvas.
+ *
+ * The shaded colours for the sides of every block colour are worked out once, rather than every time a block is painted.
+ */
+public final class BlockPainter {
+
+    /**
+     * The colour of the border around every block
+     */
+    private static final Color BORDER = Color.rgb(144, 0, 255, 1);
+
+    /**
+     * The fill of an empty block
+     */
+    private static final Color EMPTY = Color.rgb(180, 78, 217, 0.2);
+
+    /**
+     * The fill drawn on top of a block which is hovered, and the colour of the centre circle
+     */
+    private static final Color HIGHLIGHT = Color.rgb(255, 255, 255, 0.7);
+
+    /**
+     * The colour of the top side of a block, by value
+     */
+    private static final Color[] TOP = new Color[GameBlock.COLOURS.length];
+
+    /**
+     * The colour of the left side of a block, by value
+     */
+    private static final Color[] LEFT = new Color[GameBlock.COLOURS.length];
+
+    /**
+     * The colour of the right side of a block, by value
+     */
+    private static final Color[] RIGHT = new Color[GameBlock.COLOURS.length];
+
+    /**
+     * The colour of the bottom side of a block, by value
+     */
+    private static final Color[] BOTTOM = new Color[GameBlock.COLOURS.length];
+
+    /**
+     * The faded colour used to show a hint, by value
+     */
+    private static final Color[] HINT = new Color[GameBlock.COLOURS.length];
+
+    static {
+        for (int value = 0; value < GameBlock.COLOURS.length; value++) {
+            Color colour = GameBlock.COLOURS[value];
+            TOP[value] = getOffsetColour(colour, false);
+            LEFT[value] = getOffsetColour(colour, true);
+            RIGHT[value] = getOffsetColour(LEFT[value], true);
+            BOTTOM[value] = getOffsetColour(RIGHT[value], true);
+            HINT[value] = colour.deriveColor(0, 1, 1, 0.4);
+        }
+    }
+
+    /**
+     * The x points of a triangle being drawn. Painting only happens on the JavaFX thread, so these can be shared.
+     */
+    private static final double[] xPoints = new double[3];
+
+    /**
+     * The y points of a triangle being drawn
+     */
+    private static final double[] yPoints = new double[3];
+
+    /**
+     * Should not be created, only used for its static methods
+     */
+    private BlockPainter() {
+    }
+
+    /**
+     * Paint a block, which is empty if the value is 0 and otherwise the colour represented by the value
+     * @param gc the graphics context to paint on
+     * @param value the value of the block
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintBlock(GraphicsContext gc, int value, double x, double y, double width, double height) {
+        if (value <= 0 || value >= GameBlock.COLOURS.length) {
+            paintEmpty(gc, x, y, width, height);
+        } else {
+            paintColour(gc, value, x, y, width, height);
+        }
+    }
+
+    /**
+     * Paint an empty block
+     * @param gc the graphics context to paint on
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintEmpty(GraphicsContext gc, double x, double y, double width, double height) {
+        //Clear
+        gc.clearRect(x, y, width, height);
+
+        //Fill
+        gc.setFill(EMPTY);
+        gc.fillRect(x, y, width, height);
+
+        //Border
+        gc.setStroke(BORDER);
+        gc.strokeRect(x, y, width, height);
+    }
+
+    /**
+     * Paint a block with the colour represented by a value
+     * @param gc the graphics context to paint on
+     * @param value the value of the block, which is not 0
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintColour(GraphicsContext gc, int value, double x, double y, double width, double height) {
+        //Clear
+        gc.clearRect(x, y, width, height);
+
+        double borderThickness = width / 6;
+        double right = x + width;
+        double bottom = y + height;
+        double middleX = x + width / 2;
+        double middleY = y + height / 2;
+
+        //Draws 4 triangles on each side of the block to achieve desired block design
+        paintTriangle(gc, TOP[value], x, middleX, right, y, middleY, y);
+        paintTriangle(gc, LEFT[value], x, middleX, x, y, middleY, bottom);
+        paintTriangle(gc, RIGHT[value], right, middleX, right, y, middleY, bottom);
+        paintTriangle(gc, BOTTOM[value], x, middleX, right, bottom, middleY, bottom);
+
+        gc.setFill(GameBlock.COLOURS[value]);
+        gc.fillRect(x + borderThickness, y + borderThickness, width - borderThickness * 2, height - borderThickness * 2);
+
+        //Border
+        gc.setStroke(BORDER);
+        gc.strokeRect(x, y, width, height);
+    }
+
+    /**
+     * Paint a translucent circle in the middle of a block
+     * @param gc the graphics context to paint on
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintCentreCircle(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.setFill(HIGHLIGHT);
+
+        double centerX = x + width / 2;
+        double centerY = y + height / 2;
+        double radius = width / 5;
+        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Paint the hover effect on top of a block
+     * @param gc the graphics context to paint on
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintHover(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.setFill(HIGHLIGHT);
+        gc.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Paint a faded block of the colour represented by a value on top of a block, to show where a piece could go
+     * @param gc the graphics context to paint on
+     * @param value the value of the colour
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintHint(GraphicsContext gc, int value, double x, double y, double width, double height) {
+        if (value <= 0 || value >= GameBlock.COLOURS.length) {
+            return;
+        }
+        double inset = width / 6;
+        gc.setFill(HINT[value]);
+        gc.fillRect(x + inset, y + inset, width - inset * 2, height - inset * 2);
+        gc.setStroke(GameBlock.COLOURS[value]);
+        gc.strokeRect(x + inset, y + inset, width - inset * 2, height - inset * 2);
+    }
+
+    /**
+     * Paint one frame of the animation played when a block is cleared, on top of the block
+     * @param gc the graphics context to paint on
+     * @param progress how far through the animation, from 0.0 to 1.0
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paintFade(GraphicsContext gc, double progress, double x, double y, double width, double height) {
+        //A green rectangle with gradually decreasing opacity
+        gc.setFill(Color.rgb(0, 255, 0, 1.0 - progress));
+        gc.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Calculate a new colour based on the colour passed into it.
+     * @param colour initial colour to calculate new colour with.
+     * @param shade the boolean value determines how the new colour is changed, it either gets shaded or tinted
+     * @return the new colour calculated
+     */
+    public static Color getOffsetColour(Color colour, boolean shade) {
+
+        //The shade and tint factor determine how much lighter or darker the colour is change to
+        double shadeFactor = 0.3;
+        double tintFactor = 0.5;
+
+        double currentR = colour.getRed() * 255;
+        double currentG = colour.getGreen() * 255;
+        double currentB = colour.getBlue() * 255;
+
+        double newR;
+        double newG;
+        double newB;
+
+        if (shade) {
+            newR = currentR * (1 - shadeFactor);
+            newG = currentG * (1 - shadeFactor);
+            newB = currentB * (1 - shadeFactor);
+        } else {
+            newR = currentR + (255 - currentR) * tintFactor;
+            newG = currentG + (255 - currentG) * tintFactor;
+            newB = currentB + (255 - currentB) * tintFactor;
+        }
+
+        return Color.rgb((int) newR, (int) newG, (int) newB);
+    }
+
+    /**
+     * Stroke and fill a triangle in a single colour
+     * @param gc the graphics context to paint on
+     * @param colour the colour of the triangle
+     * @param x1 the x of the first point
+     * @param x2 the x of the second point
+     * @param x3 the x of the third point
+     * @param y1 the y of the first point
+     * @param y2 the y of the second point
+     * @param y3 the y of the third point
+     */
+    private static void paintTriangle(GraphicsContext gc, Color colour, double x1, double x2, double x3, double y1,
+                                      double y2, double y3) {
+        xPoints[0] = x1;
+        xPoints[1] = x2;
+        xPoints[2] = x3;
+        yPoints[0] = y1;
+        yPoints[1] = y2;
+        yPoints[2] = y3;
+
+        gc.setStroke(colour);
+        gc.strokePolygon(xPoints, yPoints, 3);
+        gc.setFill(colour);
+        gc.fillPolygon(xPoints, yPoints, 3);
+    }
+
+}
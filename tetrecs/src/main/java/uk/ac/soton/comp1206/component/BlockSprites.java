@@ -0,0 +1,154 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of pre-rendered block images. Every block colour is drawn by the BlockPainter once for each block size and
+ * variant, so painting a block afterwards is a single drawImage.
+ *
+ * Images can only be rendered on the JavaFX thread, which is where every block is painted.
+ */
+public final class BlockSprites {
+
+    /**
+     * The ways a block can be drawn
+     */
+    public enum Variant {
+
+        /**
+         * The block on its own
+         */
+        PLAIN,
+
+        /**
+         * The block with the hover effect on top
+         */
+        HOVER,
+
+        /**
+         * The block with a circle in the middle, when it is not empty
+         */
+        CENTRE
+    }
+
+    /**
+     * The size of a block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private record Size(double width, double height) {}
+
+    /**
+     * The rendered images for every block size, by variant and then value
+     */
+    private static final Map<Size, WritableImage[][]> sprites = new HashMap<>();
+
+    /**
+     * Used to render every image, resized to the block being rendered
+     */
+    private static Canvas scratch;
+
+    /**
+     * Renders images with a transparent background
+     */
+    private static SnapshotParameters snapshotParameters;
+
+    /**
+     * Should not be created, only used for its static methods
+     */
+    private BlockSprites() {
+    }
+
+    /**
+     * Paint a block, which is empty if the value is 0 and otherwise the colour represented by the value
+     * @param gc the graphics context to paint on
+     * @param value the value of the block
+     * @param variant the way to draw the block
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public static void paint(GraphicsContext gc, int value, Variant variant, double x, double y, double width,
+                             double height) {
+        if (value < 0 || value >= GameBlock.COLOURS.length) {
+            value = 0;
+        }
+
+        gc.clearRect(x, y, width, height);
+        gc.drawImage(getSprite(value, variant, width, height), x, y, width, height);
+    }
+
+    /**
+     * Get the image of a block, rendering it the first time it is asked for
+     * @param value the value of the block
+     * @param variant the way to draw the block
+     * @param width the width of the block
+     * @param height the height of the block
+     * @return the image of the block
+     */
+    private static WritableImage getSprite(int value, Variant variant, double width, double height) {
+        WritableImage[][] images = sprites.computeIfAbsent(new Size(width, height),
+                size -> new WritableImage[Variant.values().length][GameBlock.COLOURS.length]);
+
+        WritableImage image = images[variant.ordinal()][value];
+        if (image == null) {
+            image = renderSprite(value, variant, width, height);
+            images[variant.ordinal()][value] = image;
+        }
+        return image;
+    }
+
+    /**
+     * Render the image of a block
+     * @param value the value of the block
+     * @param variant the way to draw the block
+     * @param width the width of the block
+     * @param height the height of the block
+     * @return the rendered image
+     */
+    private static WritableImage renderSprite(int value, Variant variant, double width, double height) {
+        if (scratch == null) {
+            scratch = new Canvas();
+            snapshotParameters = new SnapshotParameters();
+            snapshotParameters.setFill(Color.TRANSPARENT);
+        }
+        scratch.setWidth(width);
+        scratch.setHeight(height);
+
+        var gc = scratch.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        render(gc, value, variant, 0, 0, width, height);
+
+        return scratch.snapshot(snapshotParameters, null);
+    }
+
+    /**
+     * Draw a block straight onto a graphics context with the BlockPainter
+     * @param gc the graphics context to paint on
+     * @param value the value of the block
+     * @param variant the way to draw the block
+     * @param x the left of the block
+     * @param y the top of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private static void render(GraphicsContext gc, int value, Variant variant, double x, double y, double width,
+                               double height) {
+        BlockPainter.paintBlock(gc, value, x, y, width, height);
+        if (variant == Variant.CENTRE && value != 0) {
+            BlockPainter.paintCentreCircle(gc, x, y, width, height);
+        }
+        if (variant == Variant.HOVER) {
+            BlockPainter.paintHover(gc, x, y, width, height);
+        }
+    }
+
+}
@@ -128,7 +128,7 @@ public class GameBlock extends Canvas {
             paintEmpty();
         } else {
             //If the block is not empty, paint with the colour represented by the value
-            paintColor(COLOURS[value.get()]);
+            paintColor(value.get());
         }
     }
 
@@ -136,74 +136,16 @@ public class GameBlock extends Canvas {
      * Paint this canvas empty
      */
     private void paintEmpty() {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        //Fill
-        gc.setFill(Color.rgb(180, 78, 217,0.2));
-        gc.fillRect(0,0, width, height);
-
-
-        //Border
-        gc.setStroke(Color.rgb(144, 0, 255,1));
-        gc.strokeRect(0,0,width,height);
-
+        BlockSprites.paint(getGraphicsContext2D(), 0, BlockSprites.Variant.PLAIN, 0, 0, width, height);
     }
 
     /**
-     * Paint this canvas with the given colour
-     * @param colour the colour to paint
+     * Paint this canvas with the colour represented by the given value, from the pre-rendered image of that colour
+     * @param value the value of the colour to paint
      */
-    private void paintColor(Color colour) {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        double borderThickness = width/6;
-
-        Color topColour = getOffsetColour(colour,false);
-        Color leftColour = getOffsetColour(colour,true);
-        Color rightColour = getOffsetColour(leftColour,true);
-        Color bottomColour = getOffsetColour(rightColour,true);
-
-
-        //Draws 4 triangles on each side of the canvas to achieve desired block design
-
-        gc.setStroke(topColour);
-        gc.strokePolygon(new double[]{0, width/2, width}, new double[]{0, height/2, 0}, 3);
-        gc.setFill(topColour);
-        gc.fillPolygon(new double[]{0, width/2, width}, new double[]{0, height/2, 0}, 3);
-
-        gc.setStroke(leftColour);
-        gc.strokePolygon(new double[]{0, width/2, 0}, new double[]{0, height/2, height}, 3);
-        gc.setFill(leftColour);
-        gc.fillPolygon(new double[]{0, width/2, 0}, new double[]{0, height/2, height}, 3);
-
-        gc.setStroke(rightColour);
-        gc.strokePolygon(new double[]{width, width/2, width}, new double[]{0, height/2, height}, 3);
-        gc.setFill(rightColour);
-        gc.fillPolygon(new double[]{width, width/2, width}, new double[]{0, height/2, height}, 3);
-
-        gc.setStroke(bottomColour);
-        gc.strokePolygon(new double[]{0, width/2, width}, new double[]{height, height/2, height}, 3);
-        gc.setFill(bottomColour);
-        gc.fillPolygon(new double[]{0, width/2, width}, new double[]{height, height/2, height}, 3);
-
-
-        gc.setFill(colour);
-        gc.fillRect(borderThickness, borderThickness, width-borderThickness*2, height-borderThickness*2);
-
-
-        if (displayCenterCircle) {
-            paintCircle();
-        }
-
-        //Border
-        gc.setStroke(Color.rgb(144, 0, 255,1));
-        gc.strokeRect(0,0,width,height);
+    private void paintColor(int value) {
+        BlockSprites.Variant variant = displayCenterCircle ? BlockSprites.Variant.CENTRE : BlockSprites.Variant.PLAIN;
+        BlockSprites.paint(getGraphicsContext2D(), value, variant, 0, 0, width, height);
     }
 
     /**
@@ -238,60 +180,6 @@ public class GameBlock extends Canvas {
         value.bind(input);
     }
 
-    /**
-     * Calculate a new colour based on the colour passed into it.
-     * @param colour initial colour to calculate new colour with.
-     * @param shade the boolean value determines how the new colour is changed, it either gets shaded or tinted
-     * @return the new colour calculated
-     */
-
-    private Color getOffsetColour(Color colour,Boolean shade) {
-
-        //The shade and tint factor determine how much lighter or darker the colour is change to
-        double shadeFactor = 0.3;
-        double tintFactor = 0.5;
-
-        double currentR = colour.getRed() * 255;
-        double currentG = colour.getGreen() * 255;
-        double currentB = colour.getBlue() * 255;
-
-        double newR;
-        double newG;
-        double newB;
-
-
-        if (shade) {
-
-            newR = currentR * (1 - shadeFactor);
-            newG = currentG * (1 - shadeFactor);
-            newB = currentB * (1 - shadeFactor);
-
-        } else {
-
-            newR = currentR + (255 - currentR) * tintFactor;
-            newG = currentG + (255 - currentG) * tintFactor;
-            newB = currentB + (255 - currentB) * tintFactor;
-
-        }
-
-        return Color.rgb((int) newR, (int) newG, (int) newB);
-
-    }
-
-    /**
-     * Paints a circle on the canvas on top of the existing drawings
-     */
-    private void paintCircle() {
-
-        var gc = getGraphicsContext2D();
-        gc.setFill(Color.rgb(255, 255, 255, 0.7));
-
-        // Draw a translucent circle
-        double centerX = width/2;
-        double centerY = height/2;
-        double radius = width/5;
-        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
-    }
     /**
      * Sets the boolean attribute displayCenterCircle to true.
      */
@@ -301,26 +189,27 @@ public class GameBlock extends Canvas {
     }
 
     /**
-     * Draws on top of the existing canvas to achieve a hover effect.
+     * Repaints the block with a hover effect on top.
      */
     public void setHover() {
-        var gc = getGraphicsContext2D();
-        gc.setFill(Color.rgb(255, 255, 255, 0.7));
-        gc.fillRect(0,0,width,height);
+        BlockSprites.paint(getGraphicsContext2D(), getValue(), BlockSprites.Variant.HOVER, 0, 0, width, height);
+    }
 
+    /**
+     * Repaints the block empty with a faded block of the given colour on top, to show where a piece could go.
+     * @param value the value of the colour to show
+     */
+    public void setHint(int value) {
+        var gc = getGraphicsContext2D();
+        BlockSprites.paint(gc, 0, BlockSprites.Variant.PLAIN, 0, 0, width, height);
+        BlockPainter.paintHint(gc, value, 0, 0, width, height);
     }
 
     /**
      * Removes the hover on the block by re-painting.
      */
     public void removeHover() {
-
-        Color colourOfBlock = COLOURS[getValue()];
-        if (getValue() == 0) {
-            paintEmpty();
-        } else {
-            paintColor(colourOfBlock);
-        }
+        paint();
     }
 
     /**
@@ -347,13 +236,9 @@ public class GameBlock extends Canvas {
                 // Ensure that progress remains within the valid range [0.0, 1.0]
                 progress = Math.max(0.0, Math.min(1.0, progress));
 
-                // Clear the canvas and paint it empty
-                gc.clearRect(0, 0, width, height);
+                // Paint the block empty with a green rectangle on top, which fades out gradually
                 paintEmpty();
-
-                // Draw a green rectangle with gradually decreasing opacity
-                gc.setFill(Color.rgb(0, 255, 0, 1.0 - progress)); // Fade out gradually
-                gc.fillRect(0, 0, width, height);
+                BlockPainter.paintFade(gc, progress, 0, 0, width, height);
 
                 // Check if the animation has finished and stop if so
                 if (elapsedTime >= duration) {
@@ -1,5 +1,8 @@
 package uk.ac.soton.comp1206.component;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
@@ -7,10 +10,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
 import uk.ac.soton.comp1206.event.RotateClickedListener;
+import uk.ac.soton.comp1206.game.BlockCoordinateSet;
+import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
 
-import java.util.Set;
-
 /**
  * A GameBoard is a visual component to represent the visual GameBoard.
  * It extends a GridPane to hold a grid of GameBlocks.
@@ -18,10 +21,34 @@ import java.util.Set;
  * linked to an external grid, for the main game board.
  * The GameBoard is only a visual representation and should not contain game logic or model logic in it, which should
  * take place in the Grid.
+ * In the CANVAS render mode the whole board is drawn onto a single canvas instead, and only the blocks which changed
+ * are repainted, once per pulse. There are no GameBlocks in this mode, so the block under the mouse is found from where
+ * the canvas was hovered or clicked. This keeps large boards fast, as the board is one node however many blocks it has.
  */
 public class GameBoard extends GridPane {
     private static final Logger logger = LogManager.getLogger(GameBoard.class);
 
+    /**
+     * The ways a GameBoard can draw its blocks
+     */
+    public enum RenderMode {
+
+        /**
+         * Every block is a separate GameBlock, which can be hovered and clicked
+         */
+        BLOCKS,
+
+        /**
+         * Every block is drawn onto one canvas, which is repainted where blocks have changed
+         */
+        CANVAS
+    }
+
+    /**
+     * How this board draws its blocks
+     */
+    private final RenderMode renderMode;
+
     /**
      * Number of columns in the board
      */
@@ -77,6 +104,77 @@ public class GameBoard extends GridPane {
      */
     private GameBlock currentKeyboardHoverBlock;
 
+    /**
+     * The canvas every block is drawn onto, in the CANVAS render mode
+     */
+    private Canvas canvas;
+
+    /**
+     * The blocks which need to be repainted on the next pulse, in the CANVAS render mode
+     */
+    private BlockCoordinateSet dirtyBlocks;
+
+    /**
+     * Whether the repaint timer has been asked to start since the dirty blocks were last repainted
+     */
+    private boolean repaintScheduled;
+
+    /**
+     * Repaints the dirty blocks on the next pulse, and is stopped once they have been repainted so it only runs while
+     * there is something to draw
+     */
+    private final AnimationTimer repaintTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            repaintDirtyBlocks();
+        }
+    };
+
+    /**
+     * The column of the block with a circle in the middle, or -1 if there is none
+     */
+    private int centreX = -1;
+
+    /**
+     * The row of the block with a circle in the middle, or -1 if there is none
+     */
+    private int centreY = -1;
+
+    /**
+     * The blocks which are playing the cleared animation, in the CANVAS render mode
+     */
+    private BlockCoordinateSet fadingBlocks;
+
+    /**
+     * How far through the cleared animation the fading blocks are, from 0.0 to 1.0
+     */
+    private double fadeProgress;
+
+    /**
+     * Plays the cleared animation on the fading blocks, in the CANVAS render mode
+     */
+    private AnimationTimer fadeTimer;
+
+    /**
+     * The blocks showing a hint
+     */
+    private BlockCoordinateSet hintedBlocks;
+
+    /**
+     * The value of the piece the hint is shown for, in the CANVAS render mode
+     */
+    private int hintValue;
+
+    /**
+     * The column of the block hovered by the mouse or the aim, in the CANVAS render mode, or -1 if there is none
+     */
+    private int hoverX = -1;
+
+    /**
+     * The row of the block hovered by the mouse or the aim, in the CANVAS render mode, or -1 if there is none
+     */
+    private int hoverY = -1;
+
 
     /**
      * Create a new GameBoard, based off a given grid, with a visual width and height.
@@ -85,11 +183,23 @@ public class GameBoard extends GridPane {
      * @param height the visual height
      */
     public GameBoard(Grid grid, double width, double height) {
+        this(grid, width, height, RenderMode.BLOCKS);
+    }
+
+    /**
+     * Create a new GameBoard, based off a given grid, with a visual width and height, drawn in the given render mode.
+     * @param grid linked grid
+     * @param width the visual width
+     * @param height the visual height
+     * @param renderMode how the board draws its blocks
+     */
+    public GameBoard(Grid grid, double width, double height, RenderMode renderMode) {
         this.cols = grid.getCols();
         this.rows = grid.getRows();
         this.width = width;
         this.height = height;
         this.grid = grid;
+        this.renderMode = renderMode;
 
         //Build the GameBoard
         build();
@@ -105,18 +215,42 @@ public class GameBoard extends GridPane {
      * @param height the visual height
      */
     public GameBoard(int cols, int rows, double width, double height) {
+        this(cols, rows, width, height, RenderMode.BLOCKS);
+    }
+
+    /**
+     * Create a new GameBoard with its own internal grid, specifying the number of columns and rows, along with the
+     * visual width and height and the render mode.
+     *
+     * @param cols number of columns for internal grid
+     * @param rows number of rows for internal grid
+     * @param width the visual width
+     * @param height the visual height
+     * @param renderMode how the board draws its blocks
+     */
+    public GameBoard(int cols, int rows, double width, double height, RenderMode renderMode) {
         this.cols = cols;
         this.rows = rows;
         this.width = width;
         this.height = height;
         this.grid = new Grid(cols,rows);
+        this.renderMode = renderMode;
 
         //Build the GameBoard
         build();
     }
 
     /**
-     * Get a specific block from the GameBoard, specified by it's row and column
+     * Get how this board draws its blocks
+     * @return the render mode
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Get a specific block from the GameBoard, specified by it's row and column. Only boards in the BLOCKS render mode
+     * have blocks.
      * @param x column
      * @param y row
      * @return game block at the given column and row
@@ -134,13 +268,17 @@ public class GameBoard extends GridPane {
         setMaxWidth(width);
         setMaxHeight(height);
 
-        setGridLinesVisible(true);
+        if (renderMode == RenderMode.CANVAS) {
+            buildCanvas();
+        } else {
+            setGridLinesVisible(true);
 
-        blocks = new GameBlock[cols][rows];
+            blocks = new GameBlock[cols][rows];
 
-        for(var y = 0; y < rows; y++) {
-            for (var x = 0; x < cols; x++) {
-                createBlock(x,y);
+            for(var y = 0; y < rows; y++) {
+                for (var x = 0; x < cols; x++) {
+                    createBlock(x,y);
+                }
             }
         }
 
@@ -151,7 +289,7 @@ public class GameBoard extends GridPane {
         if (this instanceof PieceBoard) {
             if (!(this instanceof MultiplayerDisplayBoard)) {
                 //Only set the center circle if it is a piece board and not a multiplayer board
-                getBlock((int) (double) (cols / 2), (int) (double) (rows / 2)).setCenterCircle();
+                setCentreCircle(cols / 2, rows / 2);
             }
 
             //Rotate the piece on the event that
@@ -177,6 +315,190 @@ public class GameBoard extends GridPane {
         }
     }
 
+    /**
+     * Build the GameBoard as a single canvas, which repaints blocks when they change in the grid
+     */
+    private void buildCanvas() {
+        canvas = new Canvas(width, height);
+        add(canvas, 0, 0);
+
+        dirtyBlocks = new BlockCoordinateSet(cols, rows);
+        fadingBlocks = new BlockCoordinateSet(cols, rows);
+        grid.setOnBlockChanged((x, y, value) -> markDirty(x, y));
+
+        //A game board is played by hovering and clicking blocks, which are found from where the canvas was used
+        if (!(this instanceof PieceBoard)) {
+            canvas.setOnMouseClicked(event -> {
+                if (event.getButton() == MouseButton.PRIMARY) {
+                    blockClicked(columnAt(event.getX()), rowAt(event.getY()));
+                }
+            });
+            canvas.setOnMouseMoved(event -> setCanvasHover(columnAt(event.getX()), rowAt(event.getY())));
+            canvas.setOnMouseExited(event -> setCanvasHover(-1, -1));
+        }
+
+        //Do an initial paint
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                paintBlock(x, y);
+            }
+        }
+    }
+
+    /**
+     * Get the column of the block at a position on the canvas
+     * @param x the x position
+     * @return the column
+     */
+    private int columnAt(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) (x / (width / cols))));
+    }
+
+    /**
+     * Get the row of the block at a position on the canvas
+     * @param y the y position
+     * @return the row
+     */
+    private int rowAt(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / (height / rows))));
+    }
+
+    /**
+     * Move the hover effect on the canvas to a block, repainting the block which had it
+     * @param x column, or -1 for no block
+     * @param y row, or -1 for no block
+     */
+    private void setCanvasHover(int x, int y) {
+        if (x == hoverX && y == hoverY) {
+            return;
+        }
+        if (hoverX >= 0) {
+            markDirty(hoverX, hoverY);
+        }
+        hoverX = x;
+        hoverY = y;
+        if (hoverX >= 0) {
+            markDirty(hoverX, hoverY);
+        }
+    }
+
+    /**
+     * Show a circle in the middle of a block, when it is not empty
+     * @param x column
+     * @param y row
+     */
+    public void setCentreCircle(int x, int y) {
+        if (renderMode == RenderMode.BLOCKS) {
+            getBlock(x, y).setCenterCircle();
+            return;
+        }
+        centreX = x;
+        centreY = y;
+        markDirty(x, y);
+    }
+
+    /**
+     * Mark a block to be repainted on the next pulse, starting the repaint timer if it is not already running
+     * @param x column
+     * @param y row
+     */
+    private void markDirty(int x, int y) {
+        synchronized (dirtyBlocks) {
+            dirtyBlocks.add(x, y);
+            if (repaintScheduled) {
+                return;
+            }
+            repaintScheduled = true;
+        }
+        if (Platform.isFxApplicationThread()) {
+            repaintTimer.start();
+        } else {
+            Platform.runLater(repaintTimer::start);
+        }
+    }
+
+    /**
+     * Repaint every block which has changed since the last repaint, then stop the repaint timer
+     */
+    private void repaintDirtyBlocks() {
+        synchronized (dirtyBlocks) {
+            repaintScheduled = false;
+            repaintTimer.stop();
+            dirtyBlocks.forEach(this::paintBlock);
+            dirtyBlocks.clear();
+        }
+    }
+
+    /**
+     * Paint a single block onto the canvas
+     * @param x column
+     * @param y row
+     */
+    private void paintBlock(int x, int y) {
+        var gc = canvas.getGraphicsContext2D();
+        double blockWidth = width / cols;
+        double blockHeight = height / rows;
+        double left = x * blockWidth;
+        double top = y * blockHeight;
+
+        if (fadingBlocks.contains(x, y)) {
+            //A cleared block is painted empty with the animation on top
+            BlockPainter.paintEmpty(gc, left, top, blockWidth, blockHeight);
+            BlockPainter.paintFade(gc, fadeProgress, left, top, blockWidth, blockHeight);
+            return;
+        }
+
+        if (hintedBlocks != null && hintedBlocks.contains(x, y)) {
+            //A hinted block is painted empty with the faded piece on top
+            BlockSprites.paint(gc, 0, BlockSprites.Variant.PLAIN, left, top, blockWidth, blockHeight);
+            BlockPainter.paintHint(gc, hintValue, left, top, blockWidth, blockHeight);
+            return;
+        }
+
+        BlockSprites.Variant variant;
+        if (x == hoverX && y == hoverY) {
+            variant = BlockSprites.Variant.HOVER;
+        } else if (x == centreX && y == centreY) {
+            variant = BlockSprites.Variant.CENTRE;
+        } else {
+            variant = BlockSprites.Variant.PLAIN;
+        }
+        BlockSprites.paint(gc, grid.get(x, y), variant, left, top, blockWidth, blockHeight);
+    }
+
+    /**
+     * Play the cleared animation on blocks drawn onto the canvas
+     * @param blocksToFade the blocks to play the animation on
+     */
+    private void fadeOutOnCanvas(BlockCoordinateSet blocksToFade) {
+        blocksToFade.forEach(fadingBlocks::add);
+        if (fadeTimer != null) {
+            fadeTimer.stop();
+        }
+
+        fadeTimer = new AnimationTimer() {
+            long startTime = -1;
+            final long duration = 500_000_000L; // 0.5 secs
+            @Override
+            public void handle(long now) {
+                if (startTime < 0) {
+                    startTime = now;
+                }
+                long elapsedTime = now - startTime;
+                fadeProgress = Math.max(0.0, Math.min(1.0, (double) elapsedTime / duration));
+                fadingBlocks.forEach(GameBoard.this::paintBlock);
+
+                //Once the animation has finished, paint the blocks normally again
+                if (elapsedTime >= duration) {
+                    stop();
+                    fadingBlocks.forEach(GameBoard.this::markDirty);
+                    fadingBlocks.clear();
+                }
+            }
+        };
+        fadeTimer.start();
+    }
+
     /**
      * Create a block at the given x and y position in the GameBoard
      * @param x column
@@ -204,7 +526,7 @@ public class GameBoard extends GridPane {
         if (!(this instanceof PieceBoard)) {
             block.setOnMouseClicked(event -> {
                 if (event.getButton() == MouseButton.PRIMARY) {
-                    blockClicked(event,block);
+                    blockClicked(block.getX(), block.getY());
                 }
             });
             block.setOnMouseEntered(event -> {
@@ -263,23 +585,33 @@ public class GameBoard extends GridPane {
 
     /**
      * Triggered when a block is clicked. Call the attached listener.
-     * @param event mouse event
-     * @param block block clicked on
+     * @param x column of the block clicked on
+     * @param y row of the block clicked on
      */
-    private void blockClicked(MouseEvent event, GameBlock block) {
-        logger.info("Block clicked: {}", block.getValue());
+    private void blockClicked(int x, int y) {
+        logger.info("Block clicked: {}", grid.get(x, y));
 
         if(blockClickedListener != null) {
-            blockClickedListener.blockClicked(block);
+            blockClickedListener.blockClicked(x, y);
         }
     }
 
     /**
-     * Set the listener to handle an event when a block is hovered by keyboard
-     * @param currentKeyboardHoverBlock listener to add
+     * Move the keyboard aim to a block, giving it the hover effect in place of the block the mouse is hovering over
+     * @param x column
+     * @param y row
      */
-    public void setCurrentKeyboardHoverBlock(GameBlock currentKeyboardHoverBlock) {
-        this.currentKeyboardHoverBlock = currentKeyboardHoverBlock;
+    public void moveAim(int x, int y) {
+        if (renderMode == RenderMode.CANVAS) {
+            setCanvasHover(x, y);
+            return;
+        }
+        if (currentKeyboardHoverBlock != null) {
+            currentKeyboardHoverBlock.removeHover();
+        }
+        currentKeyboardHoverBlock = getBlock(x, y);
+        currentKeyboardHoverBlock.setHover();
+        removeMouseHover();
     }
 
     /**
@@ -302,20 +634,55 @@ public class GameBoard extends GridPane {
     }
 
     /**
-     * Plays an animation for when a line of blocks are cleared
-     * @param blocksToFade the set of block on which the fade animation should be applied to
+     * Show where a piece could be played, as a faded outline of the piece on the board. Any hint already shown is
+     * cleared first.
+     * @param piece the piece, in the rotation it should be played in
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
      */
-    public void  playFadeOutAnimation(Set<String> blocksToFade) {
-
-        for (String blockToFade : blocksToFade) {
-            String[] strings = blockToFade.replace("[", "").replace("]", "").split(", ");
-            int[] intCoords = new int[strings.length];
-            for (int i = 0; i < intCoords.length; i++) {
-                intCoords[i] = Integer.parseInt(strings[i]);
+    public void showHint(GamePiece piece, int x, int y) {
+        clearHint();
+        if (hintedBlocks == null) {
+            hintedBlocks = new BlockCoordinateSet(cols, rows);
+        }
+        hintValue = piece.getValue();
+        for (int block = 0; block < piece.getBlockCount(); block++) {
+            int blockX = x + piece.getOffsetX(block);
+            int blockY = y + piece.getOffsetY(block);
+            hintedBlocks.add(blockX, blockY);
+            if (renderMode == RenderMode.CANVAS) {
+                markDirty(blockX, blockY);
+            } else {
+                getBlock(blockX, blockY).setHint(hintValue);
             }
-            getBlock(intCoords[0], intCoords[1]).fadeOut();
         }
+    }
 
+    /**
+     * Remove the hint shown by showHint, if there is one
+     */
+    public void clearHint() {
+        if (hintedBlocks == null || hintedBlocks.isEmpty()) {
+            return;
+        }
+        if (renderMode == RenderMode.CANVAS) {
+            hintedBlocks.forEach(this::markDirty);
+        } else {
+            hintedBlocks.forEach((x, y) -> getBlock(x, y).paint());
+        }
+        hintedBlocks.clear();
+    }
+
+    /**
+     * Plays an animation for when a line of blocks are cleared
+     * @param blocksToFade the set of block on which the fade animation should be applied to
+     */
+    public void  playFadeOutAnimation(BlockCoordinateSet blocksToFade) {
+        if (renderMode == RenderMode.CANVAS) {
+            fadeOutOnCanvas(blocksToFade);
+            return;
+        }
+        blocksToFade.forEach((x, y) -> getBlock(x, y).fadeOut());
     }
 
 }
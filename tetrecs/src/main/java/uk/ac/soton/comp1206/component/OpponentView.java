@@ -0,0 +1,97 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.geometry.Insets;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+
+/**
+ * Shows one opponent in a multiplayer game: their name and score above a small copy of their board.
+ *
+ * The label is bound to the score and dead properties, so updating an opponent is a matter of setting those properties
+ * rather than finding and rewriting the label.
+ */
+public class OpponentView extends VBox {
+
+    /**
+     * The name of the opponent
+     */
+    private final String name;
+
+    /**
+     * The score of the opponent
+     */
+    private final IntegerProperty score = new SimpleIntegerProperty(0);
+
+    /**
+     * Whether the opponent has died
+     */
+    private final BooleanProperty dead = new SimpleBooleanProperty(false);
+
+    /**
+     * The copy of the opponent's board
+     */
+    private final MultiplayerDisplayBoard board;
+
+    /**
+     * Create a view of an opponent with a score of 0
+     * @param name the name of the opponent
+     */
+    public OpponentView(String name) {
+        this.name = name;
+
+        var label = new Text();
+        label.getStyleClass().add("versusDisplay");
+        label.textProperty().bind(Bindings.concat("  ", name, ":", score));
+        getChildren().add(label);
+
+        //Once the opponent dies, their name is crossed out
+        dead.addListener((observable, wasDead, isDead) -> {
+            if (isDead) {
+                label.getStyleClass().setAll("userDead");
+                label.setStrikethrough(true);
+            }
+        });
+
+        board = new MultiplayerDisplayBoard(5,5,60,60);
+        board.setPadding(new Insets(10,0,10,20));
+        getChildren().add(board);
+    }
+
+    /**
+     * Get the name of the opponent
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the score of the opponent
+     * @return the score property
+     */
+    public IntegerProperty scoreProperty() {
+        return score;
+    }
+
+    /**
+     * Get whether the opponent has died
+     * @return the dead property
+     */
+    public BooleanProperty deadProperty() {
+        return dead;
+    }
+
+    /**
+     * Show a board state received for the opponent
+     * @param boardState the state of the board, in any format BoardCodec can decode
+     */
+    public void setBoardState(String boardState) {
+        board.setBoardDisplay(boardState);
+    }
+
+}
@@ -3,7 +3,8 @@ package uk.ac.soton.comp1206.component;
 import uk.ac.soton.comp1206.game.GamePiece;
 
 /**
- * A MultiplayerDisplayBoard is a visual component which inherits from GameBoard.
+ * A PieceBoard is a visual component which inherits from GameBoard, used to display a piece.
+ * It is drawn onto a single canvas, as its blocks are never hovered or clicked on their own.
  */
 public class PieceBoard extends GameBoard{
 
@@ -15,7 +16,7 @@ public class PieceBoard extends GameBoard{
      * @param height the visual height
      */
     public PieceBoard(int cols, int rows, double width, double height) {
-        super(cols, rows, width, height);
+        super(cols, rows, width, height, RenderMode.CANVAS);
     }
 
     /**
@@ -0,0 +1,85 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.journal.Replay;
+import uk.ac.soton.comp1206.game.journal.ReplayEngine;
+import uk.ac.soton.comp1206.game.journal.ReplayResult;
+
+import java.util.function.Consumer;
+
+/**
+ * Plays a journal onto a grid at the speed it was recorded, so a GameBoard showing the grid shows the game as it was
+ * played. Events are played on the first frame after their time has passed.
+ */
+public class RealTimeReplay extends AnimationTimer {
+
+    /**
+     * Plays the events of the journal
+     */
+    private final ReplayEngine replayEngine;
+
+    /**
+     * How many times faster than the recording to play
+     */
+    private final double speed;
+
+    /**
+     * The time of the first frame, or -1 before it
+     */
+    private long startNanos = -1;
+
+    /**
+     * Called with the result once every event has been played
+     */
+    private Consumer<ReplayResult> onFinished;
+
+    /**
+     * Create a replay which plays onto a grid
+     * @param replay the journal to play
+     * @param grid an empty grid of the size in the journal, which can be shown by a GameBoard
+     * @param speed how many times faster than the recording to play, 1.0 for real time
+     */
+    public RealTimeReplay(Replay replay, Grid grid, double speed) {
+        this.replayEngine = new ReplayEngine(replay, grid);
+        this.speed = speed;
+    }
+
+    /**
+     * Play every event whose time has passed
+     * @param now the time of this frame, in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        double elapsedMillis = (now - startNanos) / 1_000_000.0 * speed;
+        while (replayEngine.hasNext() && replayEngine.getNextTime() <= elapsedMillis) {
+            replayEngine.step();
+        }
+        if (!replayEngine.hasNext()) {
+            stop();
+            if (onFinished != null) {
+                onFinished.accept(replayEngine.getResult());
+            }
+        }
+    }
+
+    /**
+     * Set the listener to call with the result once every event has been played
+     * @param onFinished the listener
+     */
+    public void setOnFinished(Consumer<ReplayResult> onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    /**
+     * Get the engine the journal is played through, for example to show the current and next pieces
+     * @return the replay engine
+     */
+    public ReplayEngine getReplayEngine() {
+        return replayEngine;
+    }
+
+}
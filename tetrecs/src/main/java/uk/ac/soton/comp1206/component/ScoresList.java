@@ -13,7 +13,8 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 import javafx.util.Pair;
 
-import java.util.ArrayList;
+import uk.ac.soton.comp1206.score.Leaderboard;
+
 import java.util.List;
 
 /**
@@ -81,29 +82,36 @@ public class ScoresList {
 
 
     /**
-     * Orders an array containing Pairs by the second element from highest to lowest
-     * @param arrayToSort the array to be sorted
-     * @return arrayToSort the sorted array list
+     * Orders a list of Pairs by the second element from highest to lowest. An observable list is changed with a single
+     * change event.
+     * @param arrayToSort the list to be sorted
+     * @return arrayToSort the sorted list
      */
-
-
     public List<Pair<String,Integer>> orderByScore(List<Pair<String, Integer>> arrayToSort) {
+        return orderByScore(arrayToSort, arrayToSort.size());
+    }
 
-        ArrayList<Pair<String,Integer>> sortedScores = new ArrayList<>();
-
-        while (!arrayToSort.isEmpty()) {
-            Pair<String,Integer> highestPair = arrayToSort.get(0);
-            for(Pair<String,Integer> pair : arrayToSort) {
-                if (pair.getValue() > highestPair.getValue()) {
-                    highestPair = pair;
-                }
-            }
-            sortedScores.add(highestPair);
-            arrayToSort.remove(highestPair);
+    /**
+     * Orders a list of Pairs by the second element from highest to lowest, keeping only the highest scores. An
+     * observable list is changed with a single change event.
+     * @param arrayToSort the list to be sorted
+     * @param limit the most scores to keep
+     * @return arrayToSort the sorted list
+     */
+    public List<Pair<String,Integer>> orderByScore(List<Pair<String, Integer>> arrayToSort, int limit) {
+        if (arrayToSort.isEmpty()) {
+            return arrayToSort;
         }
 
-        arrayToSort.addAll(sortedScores);
+        Leaderboard<Pair<String,Integer>> leaderboard = new Leaderboard<>(Math.max(1, limit), Pair::getValue);
+        leaderboard.addAll(arrayToSort);
 
+        if (arrayToSort instanceof ObservableList<Pair<String,Integer>> observable) {
+            observable.setAll(leaderboard.toList());
+        } else {
+            arrayToSort.clear();
+            arrayToSort.addAll(leaderboard.toList());
+        }
         return arrayToSort;
     }
 
@@ -0,0 +1,16 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The BlockChangedListener is used for listening for when the value of a block in a Grid changes
+ */
+public interface BlockChangedListener {
+
+    /**
+     * Handle a block in the grid changing value
+     * @param x column
+     * @param y row
+     * @param value the new value of the block
+     */
+    public void blockChanged(int x, int y, int value);
+
+}
@@ -0,0 +1,17 @@
+package uk.ac.soton.comp1206.event;
+
+import java.util.List;
+
+/**
+ * The ChannelsChangedListener is used for listening for channels being opened or closed on the server
+ */
+public interface ChannelsChangedListener {
+
+    /**
+     * Handle the list of channels changing. Only called when something has actually changed.
+     * @param added the channels which have appeared, in the order the server listed them
+     * @param removed the channels which have gone
+     */
+    public void channelsChanged(List<String> added, List<String> removed);
+
+}
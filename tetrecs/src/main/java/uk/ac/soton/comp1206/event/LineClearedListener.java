@@ -1,6 +1,6 @@
 package uk.ac.soton.comp1206.event;
 
-import java.util.Set;
+import uk.ac.soton.comp1206.game.BlockCoordinateSet;
 
 /**
  * The LineClearedListener is used for listening for when a line of blocks are cleared in the game
@@ -8,9 +8,10 @@ import java.util.Set;
 public interface LineClearedListener {
 
     /**
-     * Handle when a line of blocks have been cleared is changed
+     * Handle when a line of blocks have been cleared is changed.
+     * The set is reused by the game, so it should not be kept after this call returns.
      * @param gameBlockcoordinates the set of blocks which were cleared
      */
-    public void lineCleared(Set<String> gameBlockcoordinates);
+    public void lineCleared(BlockCoordinateSet gameBlockcoordinates);
 
 }
@@ -0,0 +1,16 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.network.Message;
+
+/**
+ * The MessageListener is used for listening to one type of decoded message received by the communicator.
+ * @param <T> the type of message to listen for
+ */
+public interface MessageListener<T extends Message> {
+
+    /**
+     * Handle an incoming message of the type this listener subscribed to
+     * @param message the message that was received
+     */
+    public void receiveMessage(T message);
+}
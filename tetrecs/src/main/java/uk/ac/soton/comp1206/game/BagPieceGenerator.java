@@ -0,0 +1,63 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Generates pieces from a shuffled bag holding one of every piece. Every piece is dealt once before the bag is refilled
+ * and shuffled again, so a piece never goes missing for long.
+ */
+public class BagPieceGenerator extends SeededPieceGenerator {
+
+    /**
+     * The kind of this generator
+     */
+    public static final String KIND = "bag";
+
+    /**
+     * The piece numbers in the bag, in the order they are dealt
+     */
+    private final int[] bag = new int[GamePiece.PIECES];
+
+    /**
+     * The position in the bag of the next piece to deal
+     */
+    private int position = GamePiece.PIECES;
+
+    /**
+     * Create a new generator
+     * @param seed the seed
+     */
+    public BagPieceGenerator(long seed) {
+        super(seed);
+        for (int piece = 0; piece < bag.length; piece++) {
+            bag[piece] = piece;
+        }
+    }
+
+    /**
+     * Deal the next piece from the bag, shuffling it first if it is empty
+     * @return the piece number
+     */
+    @Override
+    protected int nextType() {
+        if (position == bag.length) {
+            //Fisher-Yates shuffle
+            for (int i = bag.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = bag[i];
+                bag[i] = bag[j];
+                bag[j] = swap;
+            }
+            position = 0;
+        }
+        return bag[position++];
+    }
+
+    /**
+     * Describe the kind of generator
+     * @return the kind
+     */
+    @Override
+    public String getKind() {
+        return KIND;
+    }
+
+}
@@ -0,0 +1,181 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * A set of block coordinates on a grid of a fixed size. Each block is held as a single bit, so whole rows and columns
+ * can be added without creating an object for every block.
+ *
+ * The set is meant to be reused: clear it rather than creating a new one.
+ */
+public class BlockCoordinateSet {
+
+    /**
+     * Handles a single block in the set
+     */
+    public interface BlockConsumer {
+
+        /**
+         * Handle a block in the set
+         * @param x column
+         * @param y row
+         */
+        void accept(int x, int y);
+    }
+
+    /**
+     * The number of columns of the grid this set covers
+     */
+    private final int cols;
+
+    /**
+     * The number of rows of the grid this set covers
+     */
+    private final int rows;
+
+    /**
+     * One bit for every block, indexed by row and then column
+     */
+    private final long[] bits;
+
+    /**
+     * Create a new, empty set for a grid with the given number of columns and rows
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public BlockCoordinateSet(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.bits = new long[Math.max(1, (cols * rows + 63) >>> 6)];
+    }
+
+    /**
+     * Add a block to the set
+     * @param x column
+     * @param y row
+     */
+    public void add(int x, int y) {
+        int index = y * cols + x;
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Add every block in a row to the set
+     * @param y row
+     */
+    public void addRow(int y) {
+        setRange(y * cols, (y + 1) * cols);
+    }
+
+    /**
+     * Add every block in a column to the set
+     * @param x column
+     */
+    public void addColumn(int x) {
+        for (int y = 0; y < rows; y++) {
+            add(x, y);
+        }
+    }
+
+    /**
+     * Check whether a block is in the set
+     * @param x column
+     * @param y row
+     * @return true if the block is in the set
+     */
+    public boolean contains(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return false;
+        }
+        int index = y * cols + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Get the number of blocks in the set
+     * @return number of blocks
+     */
+    public int size() {
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Check whether the set has no blocks in it
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove every block from the set
+     */
+    public void clear() {
+        Arrays.fill(bits, 0L);
+    }
+
+    /**
+     * Call the consumer for every block in the set, in row order
+     * @param consumer the consumer to call
+     */
+    public void forEach(BlockConsumer consumer) {
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                consumer.accept(index % cols, index / cols);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Get the number of columns of the grid this set covers
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows of the grid this set covers
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Set every bit from one index up to (but not including) another
+     * @param from the first index
+     * @param to the index after the last
+     */
+    private void setRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bits[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            bits[w] = -1L;
+        }
+        bits[lastWord] |= lastMask;
+    }
+
+}
@@ -0,0 +1,456 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.BlockChangedListener;
+
+/**
+ * The Board holds the value of every block of a game board, with no dependency on JavaFX, so the rules of the game can
+ * run without a display.
+ *
+ * The colour of every block is held in a flat byte array, and which blocks are occupied is held as bitmasks of longs
+ * for every row and every column, so placement checks and line detection are only a few mask operations.
+ *
+ * The row bitmasks have a border one block wide all the way round the board which is always occupied. Looking at the
+ * blocks around a point on the edge of the board then reads the border rather than checking which side is off the
+ * board, so placement checks cost the same on any size of board.
+ *
+ * The Grid extends the Board with properties which can be bound to display it.
+ */
+public class Board {
+
+    /**
+     * The number of bits held in each word of a bitmask
+     */
+    private static final int WORD_BITS = 64;
+
+    /**
+     * The number of columns in this board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in this board
+     */
+    private final int rows;
+
+    /**
+     * The number of longs used to hold the occupancy of a single row
+     */
+    private final int rowWords;
+
+    /**
+     * The number of longs used to hold the occupancy of a single column
+     */
+    private final int colWords;
+
+    /**
+     * The occupancy of every row including the border, where bit x + 1 of row y + 1 is set if the block in column x of
+     * row y is not empty. Every bit of the border is set. One spare word at the end lets a window be read across two
+     * words without checking for the end of the array.
+     */
+    private final long[] rowBits;
+
+    /**
+     * The occupancy of every column, where bit y of a column is set if the block in row y is not empty
+     */
+    private final long[] colBits;
+
+    /**
+     * The mask of the last word of a row, including the border, when every block in that row is occupied
+     */
+    private final long lastRowWordMask;
+
+    /**
+     * The mask of the last word of a column when every block in that column is occupied
+     */
+    private final long lastColWordMask;
+
+    /**
+     * The value of every block in the board, indexed by row and then column
+     */
+    private final byte[] cells;
+
+    /**
+     * The blocks whose value has changed since they were last cleared, used to send only what changed
+     */
+    private final BlockCoordinateSet changedBlocks;
+
+    /**
+     * The listener to call when the value of a block changes
+     */
+    private BlockChangedListener blockChangedListener;
+
+    /**
+     * Keeps track of everywhere every piece can be played, or null if it has not been enabled
+     */
+    private LegalMoveIndex legalMoveIndex;
+
+    /**
+     * Empties a single block, used when clearing a set of blocks
+     */
+    private final BlockCoordinateSet.BlockConsumer emptyBlock = (x, y) -> set(x, y, 0);
+
+    /**
+     * Create a new Board with the specified number of columns and rows and initialise them
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public Board(int cols, int rows) {
+        if (cols < 1 || rows < 1) {
+            throw new IllegalArgumentException("Board must be at least 1x1: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+
+        //Work out how many longs are needed to hold a row with its border and a column
+        rowWords = wordsFor(cols + 2);
+        colWords = wordsFor(rows);
+
+        //Create the board itself
+        rowBits = new long[(rows + 2) * rowWords + 1];
+        colBits = new long[cols * colWords];
+        cells = new byte[cols * rows];
+        changedBlocks = new BlockCoordinateSet(cols, rows);
+
+        lastRowWordMask = lastWordMask(cols + 2);
+        lastColWordMask = lastWordMask(rows);
+
+        //Fill in the border: the whole of the rows above and below the board, and both ends of every row
+        for (int x = 0; x < cols + 2; x++) {
+            setRowBit(0, x);
+            setRowBit(rows + 1, x);
+        }
+        for (int y = 1; y <= rows; y++) {
+            setRowBit(y, 0);
+            setRowBit(y, cols + 1);
+        }
+    }
+
+    /**
+     * Set a bit of the row bitmasks, in the coordinates which include the border
+     * @param row the row, from 0 to rows + 1
+     * @param col the column, from 0 to cols + 1
+     */
+    private void setRowBit(int row, int col) {
+        rowBits[row * rowWords + (col >>> 6)] |= 1L << col;
+    }
+
+    /**
+     * Update the value at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    public void set(int x, int y, int value) {
+        int index = index(x, y);
+        int previous = cells[index];
+        if (previous == value) {
+            return;
+        }
+        cells[index] = (byte) value;
+        changedBlocks.add(x, y);
+
+        //Only touch the occupancy masks when the block goes from empty to filled or the other way round
+        if ((previous == 0) != (value == 0)) {
+            rowBits[(y + 1) * rowWords + ((x + 1) >>> 6)] ^= 1L << (x + 1);
+            colBits[x * colWords + (y >>> 6)] ^= 1L << y;
+            if (legalMoveIndex != null) {
+                legalMoveIndex.occupancyChanged(x, y);
+            }
+        }
+
+        blockChanged(x, y, value);
+    }
+
+    /**
+     * Called after the value of a block has changed
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    protected void blockChanged(int x, int y, int value) {
+        if (blockChangedListener != null) {
+            blockChangedListener.blockChanged(x, y, value);
+        }
+    }
+
+    /**
+     * Set the listener to call when the value of a block changes
+     * @param listener listener to add
+     */
+    public void setOnBlockChanged(BlockChangedListener listener) {
+        this.blockChangedListener = listener;
+    }
+
+    /**
+     * Get the value represented at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @return the value
+     */
+    public int get(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            //No such index
+            return -1;
+        }
+        return cells[index(x, y)];
+    }
+
+    /**
+     * Check whether the block at the given x and y index holds a value. Blocks off the board count as occupied.
+     * @param x column
+     * @param y row
+     * @return true if the block is not empty
+     */
+    public boolean isOccupied(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return true;
+        }
+        return (rowBits[(y + 1) * rowWords + ((x + 1) >>> 6)] & (1L << (x + 1))) != 0;
+    }
+
+    /**
+     * Get the number of columns in this game
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in this game
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Counts the occupied blocks in a row
+     * @param y the row to count
+     * @return the number of occupied blocks
+     */
+    public int getRowCount(int y) {
+        //Leave out the border at both ends
+        return countBits(rowBits, (y + 1) * rowWords, rowWords) - 2;
+    }
+
+    /**
+     * Counts the occupied blocks in a column
+     * @param x the column to count
+     * @return the number of occupied blocks
+     */
+    public int getColumnCount(int x) {
+        return countBits(colBits, x * colWords, colWords);
+    }
+
+    /**
+     * Checks if every block in a row is occupied
+     * @param y the row to check
+     * @return true if the row is full
+     */
+    public boolean isRowFull(int y) {
+        return isFull(rowBits, (y + 1) * rowWords, rowWords, lastRowWordMask);
+    }
+
+    /**
+     * Checks if every block in a column is occupied
+     * @param x the column to check
+     * @return true if the column is full
+     */
+    public boolean isColumnFull(int x) {
+        return isFull(colBits, x * colWords, colWords, lastColWordMask);
+    }
+
+    /**
+     * checks if a piece can be played at the given coordinates
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @param piece the piece which is to be played at the coordinates
+     * @return canPlay if the block can be played at the given coordinates
+     */
+
+    public boolean canPlayPiece(int x, int y, GamePiece piece) {
+        if (legalMoveIndex != null) {
+            return legalMoveIndex.canPlay(x, y, piece);
+        }
+        //Every block of the piece has to land on the board and on an empty block
+        return (getSurroundingMask(x, y) & piece.getMask()) == 0;
+    }
+
+    /**
+     * Gets the occupancy of the 3x3 blocks around the given point, laid out in the same way as GamePiece.getMask().
+     * Blocks off the board count as occupied.
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @return a 9-bit mask of the occupied blocks
+     */
+    public int getSurroundingMask(int x, int y) {
+        //One check covers all four edges, as any coordinate off the board makes one of these negative
+        if ((x | y | (cols - 1 - x) | (rows - 1 - y)) < 0) {
+            return 0b111_111_111;
+        }
+
+        //Row y of the board is row y + 1 of the bitmasks, and the window starts one column to the left of x
+        return getRowWindow(y, x) | getRowWindow(y + 1, x) << 3 | getRowWindow(y + 2, x) << 6;
+    }
+
+
+    /**
+     * places a piece at a given coordinate
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @param piece the piece which is to be played at the coordinates
+     */
+
+    public void playPiece(int x, int y, GamePiece piece) {
+        int value = piece.getValue();
+
+        for (int block = 0; block < piece.getBlockCount(); block++) {
+            set(x + piece.getOffsetX(block), y + piece.getOffsetY(block), value);
+        }
+    }
+
+    /**
+     * Empties every block in the given set
+     * @param blocks the blocks to empty
+     */
+    public void clearBlocks(BlockCoordinateSet blocks) {
+        blocks.forEach(emptyBlock);
+    }
+
+    /**
+     * Completely resets the board by setting the value of each block to 0
+     */
+    public void reset() {
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                set(x,y,0);
+            }
+        }
+    }
+
+    /**
+     * Make this board hold the same blocks as another board of the same size. Used to try out moves on a copy, so no
+     * listener is called and the changed blocks are left as they are.
+     * @param other the board to copy
+     * @throws IllegalArgumentException if the boards are different sizes
+     */
+    public void copyFrom(Board other) {
+        if (other.cols != cols || other.rows != rows) {
+            throw new IllegalArgumentException("Cannot copy a " + other.cols + "x" + other.rows + " board to a "
+                    + cols + "x" + rows + " board");
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.rowBits, 0, rowBits, 0, rowBits.length);
+        System.arraycopy(other.colBits, 0, colBits, 0, colBits.length);
+        if (legalMoveIndex != null) {
+            legalMoveIndex.rebuild();
+        }
+    }
+
+    /**
+     * Start keeping track of everywhere every piece can be played, so placement checks become a bit test and the
+     * places a piece fits can be listed without scanning the board. Makes filling and emptying blocks a little slower.
+     */
+    public void enableLegalMoveIndex() {
+        if (legalMoveIndex == null) {
+            legalMoveIndex = new LegalMoveIndex(this);
+        }
+    }
+
+    /**
+     * Get the index of everywhere every piece can be played
+     * @return the index, or null if it has not been enabled
+     */
+    public LegalMoveIndex getLegalMoveIndex() {
+        return legalMoveIndex;
+    }
+
+    /**
+     * Get the blocks whose value has changed since the set was last cleared. The set belongs to the board and is
+     * cleared by whoever reads it.
+     * @return the changed blocks
+     */
+    public BlockCoordinateSet getChangedBlocks() {
+        return changedBlocks;
+    }
+
+    /**
+     * Get the index of a block inside the flat array of values
+     * @param x column
+     * @param y row
+     * @return the index of the block
+     */
+    protected int index(int x, int y) {
+        return y * cols + x;
+    }
+
+    /**
+     * Gets the occupancy of three blocks next to each other in a row, as a 3-bit mask. Reads the row bitmasks with their
+     * border, so the window can start in the border column and the row can be a border row.
+     * @param row the row, from 0 to rows + 1
+     * @param col the leftmost column of the window, from 0 to cols - 1
+     * @return a 3-bit mask of the occupied blocks, with the leftmost block in the lowest bit
+     */
+    private int getRowWindow(int row, int col) {
+        int word = row * rowWords + (col >>> 6);
+        int shift = col & 63;
+
+        //The next word supplies any bits of the window which run over the end of this one. Shifting in two steps
+        //keeps a shift of 64 from wrapping round to 0, and the spare word at the end of the array keeps this in bounds.
+        long bits = rowBits[word] >>> shift | rowBits[word + 1] << 1 << (63 - shift);
+        return (int) bits & 0b111;
+    }
+
+    /**
+     * Checks if every bit of a line held in a bitmask is set
+     * @param bits the bitmask holding the line
+     * @param offset the index of the first word of the line
+     * @param words the number of words in the line
+     * @param lastWordMask the mask of the last word when the line is full
+     * @return true if the line is full
+     */
+    private static boolean isFull(long[] bits, int offset, int words, long lastWordMask) {
+        for (int w = 0; w < words - 1; w++) {
+            if (bits[offset + w] != -1L) {
+                return false;
+            }
+        }
+        return bits[offset + words - 1] == lastWordMask;
+    }
+
+    /**
+     * Counts the set bits of a line held in a bitmask
+     * @param bits the bitmask holding the line
+     * @param offset the index of the first word of the line
+     * @param words the number of words in the line
+     * @return the number of set bits
+     */
+    private static int countBits(long[] bits, int offset, int words) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[offset + w]);
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of longs needed to hold the given number of bits
+     * @param bits number of bits
+     * @return number of longs
+     */
+    private static int wordsFor(int bits) {
+        return Math.max(1, (bits + WORD_BITS - 1) / WORD_BITS);
+    }
+
+    /**
+     * Get the mask of the last word when the given number of bits are all set
+     * @param bits number of bits
+     * @return the mask of the last word
+     */
+    private static long lastWordMask(int bits) {
+        int remaining = bits % WORD_BITS;
+        return remaining == 0 ? -1L : (1L << remaining) - 1;
+    }
+
+}
@@ -0,0 +1,214 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Encodes the state of a Board for BOARD messages, and applies received states to a Board.
+ *
+ * A snapshot starts with SNAPSHOT and holds one hex digit for every block, in row order. A delta starts with DELTA and
+ * holds only the blocks which changed since the last state was encoded, as comma separated entries made of the hex
+ * index of the block followed by a single hex digit for its value. A snapshot is sent every KEYFRAME_INTERVAL states,
+ * or whenever a delta would be larger, so a player who missed a delta catches up again.
+ *
+ * The old format from Grid.getGridState(), with every value separated by spaces, is what other clients on the server
+ * understand, so it is still what MultiplayerGame sends unless packed boards are turned on. It can always be applied.
+ */
+public class BoardCodec {
+
+    /**
+     * The first character of a snapshot
+     */
+    public static final char SNAPSHOT = '#';
+
+    /**
+     * The first character of a delta
+     */
+    public static final char DELTA = '+';
+
+    /**
+     * A snapshot is sent at least once every this many states
+     */
+    public static final int KEYFRAME_INTERVAL = 10;
+
+    /**
+     * The board which is encoded
+     */
+    private final Board board;
+
+    /**
+     * The number of states encoded since the last snapshot, or -1 if no snapshot has been encoded yet
+     */
+    private int sinceSnapshot = -1;
+
+    /**
+     * Builds each encoded state
+     */
+    private final StringBuilder builder = new StringBuilder();
+
+    /**
+     * Adds a single changed block to the delta being built
+     */
+    private final BlockCoordinateSet.BlockConsumer appendBlock;
+
+    /**
+     * Create a new codec which encodes the given board
+     * @param board the board to encode
+     */
+    public BoardCodec(Board board) {
+        this.board = board;
+        this.appendBlock = (x, y) -> {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append(Integer.toHexString(y * board.getCols() + x));
+            builder.append(Character.forDigit(board.get(x, y) & 0xF, 16));
+        };
+    }
+
+    /**
+     * Encode the state of the board to send next, which is a delta of the blocks changed since the last state was
+     * encoded unless a snapshot is due
+     * @return the encoded state
+     */
+    public String encode() {
+        BlockCoordinateSet changed = board.getChangedBlocks();
+        String state = null;
+
+        if (sinceSnapshot >= 0 && sinceSnapshot < KEYFRAME_INTERVAL - 1) {
+            builder.setLength(0);
+            builder.append(DELTA);
+            changed.forEach(appendBlock);
+
+            //A delta is only worth sending if it is smaller than a snapshot
+            if (builder.length() <= board.getCols() * board.getRows()) {
+                state = builder.toString();
+                sinceSnapshot++;
+            }
+        }
+        if (state == null) {
+            state = encodeSnapshot(board);
+            sinceSnapshot = 0;
+        }
+
+        changed.clear();
+        return state;
+    }
+
+    /**
+     * Check whether an encoded state replaces the whole board, which is true of snapshots and of the old format
+     * @param state the encoded state
+     * @return true if the state is not a delta
+     */
+    public static boolean isSnapshot(String state) {
+        return !state.isEmpty() && state.charAt(0) != DELTA;
+    }
+
+    /**
+     * Encode a snapshot of every block in a board
+     * @param board the board to encode
+     * @return the snapshot
+     */
+    public static String encodeSnapshot(Board board) {
+        int cols = board.getCols();
+        int rows = board.getRows();
+        char[] snapshot = new char[cols * rows + 1];
+        snapshot[0] = SNAPSHOT;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                snapshot[y * cols + x + 1] = Character.forDigit(board.get(x, y) & 0xF, 16);
+            }
+        }
+        return new String(snapshot);
+    }
+
+    /**
+     * Apply an encoded state to a board. Only the blocks whose value changes are updated.
+     * @param board the board to update
+     * @param state a snapshot, a delta, or a state in the old space separated format
+     * @throws NumberFormatException if the state is not valid
+     */
+    public static void decode(Board board, String state) {
+        if (state.isEmpty()) {
+            return;
+        }
+        switch (state.charAt(0)) {
+            case SNAPSHOT -> decodeSnapshot(board, state);
+            case DELTA -> decodeDelta(board, state);
+            default -> decodeLegacy(board, state);
+        }
+    }
+
+    /**
+     * Apply a snapshot to a board
+     * @param board the board to update
+     * @param state the snapshot
+     */
+    private static void decodeSnapshot(Board board, String state) {
+        int cols = board.getCols();
+        int blocks = Math.min(cols * board.getRows(), state.length() - 1);
+        for (int index = 0; index < blocks; index++) {
+            board.set(index % cols, index / cols, digit(state.charAt(index + 1)));
+        }
+    }
+
+    /**
+     * Apply a delta to a board
+     * @param board the board to update
+     * @param state the delta
+     */
+    private static void decodeDelta(Board board, String state) {
+        int cols = board.getCols();
+        int blocks = cols * board.getRows();
+        int start = 1;
+        while (start < state.length()) {
+            int end = state.indexOf(',', start);
+            if (end < 0) {
+                end = state.length();
+            }
+            if (end - start >= 2) {
+                int index = Integer.parseInt(state, start, end - 1, 16);
+                if (index < blocks) {
+                    board.set(index % cols, index / cols, digit(state.charAt(end - 1)));
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Apply a state in the old format from Grid.getGridState(), which lists every value separated by spaces in column
+     * order
+     * @param board the board to update
+     * @param state the state
+     */
+    private static void decodeLegacy(Board board, String state) {
+        int rows = board.getRows();
+        int blocks = board.getCols() * rows;
+        int index = 0;
+        int start = 0;
+        while (start < state.length() && index < blocks) {
+            int end = state.indexOf(' ', start);
+            if (end < 0) {
+                end = state.length();
+            }
+            if (end > start) {
+                board.set(index / rows, index % rows, Integer.parseInt(state, start, end, 10));
+                index++;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Get the value of a single hex digit
+     * @param digit the digit
+     * @return the value
+     * @throws NumberFormatException if the digit is not a hex digit
+     */
+    private static int digit(char digit) {
+        int value = Character.digit(digit, 16);
+        if (value < 0) {
+            throw new NumberFormatException("Not a hex digit: " + digit);
+        }
+        return value;
+    }
+
+}
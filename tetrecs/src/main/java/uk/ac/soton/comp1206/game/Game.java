@@ -4,20 +4,28 @@ package uk.ac.soton.comp1206.game;
 import javafx.beans.property.IntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 
 import javafx.beans.property.SimpleIntegerProperty;
 import uk.ac.soton.comp1206.event.AimChangedListener;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.game.ai.PlacementSearch;
+import uk.ac.soton.comp1206.game.ai.TranspositionTable;
+import uk.ac.soton.comp1206.game.ai.WeightedHeuristic;
+import uk.ac.soton.comp1206.game.journal.GameJournal;
+import uk.ac.soton.comp1206.game.journal.JournalWriter;
 import uk.ac.soton.comp1206.multimedia.Multimedia;
 
-import java.util.*;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 /**
  * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
  * and to handle actions made by the player should take place inside this class.
+ *
+ * The rules themselves are run by a GameEngine, which has no dependency on JavaFX. The Game adapts it for the scenes by
+ * keeping the score, level, lives and multiplier properties up to date, playing sounds and running the timer.
  */
 public class Game {
 
@@ -26,10 +34,6 @@ public class Game {
      */
     protected static final Logger logger = LogManager.getLogger(Game.class);
 
-    /**
-     * A listener which is triggered when the next piece is generated
-     */
-    protected NextPieceListener nextPieceListener;
     /**
      * A listener which is triggered changes are made to the game loop
      */
@@ -38,19 +42,6 @@ public class Game {
      * A listener which is triggered when changes are made to the aim
      */
     protected AimChangedListener aimChangedListener;
-    /**
-     * A listener which is triggered when a line of blocks are cleared
-     */
-    protected LineClearedListener lineClearedListener;
-    /**
-     * The current gamePiece that is to be played
-     */
-    protected GamePiece currentPiece;
-    /**
-     * The next gamePiece that is to be played after the current one
-     */
-    protected GamePiece nextPiece;
-
     /**
      * The score for the game
      */
@@ -80,9 +71,14 @@ public class Game {
     protected Multimedia multimedia;
 
     /**
-     * The Timer object to keep track of the game loop
+     * The clock which keeps track of how long the player has left to place the current piece
+     */
+    protected final GameClock clock;
+
+    /**
+     * Called by the clock when the player runs out of time
      */
-    protected Timer timer;
+    private final Runnable timeout = this::gameLoop;
     /**
      * Number of rows
      */
@@ -98,6 +94,46 @@ public class Game {
      */
     protected final Grid grid;
 
+    /**
+     * The engine which runs the rules of the game
+     */
+    protected final GameEngine engine;
+
+    /**
+     * Decides which piece comes next
+     */
+    protected PieceGenerator pieceGenerator;
+
+    /**
+     * How long working out a hint may take, in milliseconds
+     */
+    public static final long HINT_BUDGET_MILLIS = 20;
+
+    /**
+     * Works out hints, created the first time a hint is asked for
+     */
+    private PlacementSearch hintSearch;
+
+    /**
+     * The directory the scenes write journals to
+     */
+    public static final Path JOURNAL_DIRECTORY = Path.of("journals");
+
+    /**
+     * Records everything the player does, so the game can be replayed
+     */
+    protected GameJournal journal;
+
+    /**
+     * The directory journals are written to, or null to only keep them in memory
+     */
+    private Path journalDirectory;
+
+    /**
+     * Whether this is a marathon game, which keeps its own high scores
+     */
+    private boolean marathon;
+
     /**
      * Create a new game with the specified rows and columns. Creates a corresponding grid model.
      * @param cols number of columns
@@ -109,6 +145,11 @@ public class Game {
 
         //Create a new grid model to represent the game state
         this.grid = new Grid(cols,rows);
+        this.clock = new GameClock();
+        this.pieceGenerator = PieceGenerator.uniform(PieceGenerator.randomSeed());
+
+        //Every new piece is taken from generatePiece, so subclasses can change where pieces come from
+        this.engine = new GameEngine(grid, this::generatePiece);
 
         lives = new SimpleIntegerProperty(3);
         score = new SimpleIntegerProperty(0);
@@ -164,12 +205,12 @@ public class Game {
 
         logger.info("Initialising game");
 
-        //Current and next piece are generated
-
-        currentPiece = generatePiece();
-        nextPiece = generatePiece();
-        nextPieceListener.nextPiece(currentPiece,nextPiece);
-        logger.info("current piece = " + currentPiece.toString());
+        //Current and next piece are generated, the seed is logged so the pieces can be played again
+        logger.info("Piece seed: {}", pieceGenerator.getSeed());
+        openJournal();
+        journal.start();
+        engine.start();
+        logger.info("current piece = " + engine.getCurrentPiece().toString());
 
         //Initial aim set
         currentBlockAimedAt = new int[]{0, 0};
@@ -177,61 +218,152 @@ public class Game {
 
         //Game loop started
         startTimeLoop();
-        gameLoopListener.gameLoop(timer,false,false);
+        gameLoopListener.gameLoop(false,false);
         multimedia = new Multimedia();
 
     }
 
 
     /**
-     * Generates a random piece
+     * Generates the next piece from the piece generator
      * @return GamePiece that was generated
      */
     public GamePiece generatePiece() {
+        return pieceGenerator.next();
+    }
 
-        Random random = new Random();
-        int pieceType = random.nextInt(0,15);
-        return GamePiece.createPiece(pieceType);
+    /**
+     * Start a new journal for this game, streamed to the journal directory if there is one
+     */
+    protected void openJournal() {
+        journal = new GameJournal(cols, rows, pieceGenerator);
+        if (journalDirectory != null) {
+            Path file = journalDirectory.resolve("game-" + System.currentTimeMillis() + JournalWriter.EXTENSION);
+            journal.setWriter(new JournalWriter(file));
+            logger.info("Recording journal to {}", file);
+        }
+    }
 
+    /**
+     * Set the directory journals are written to. Should be set before the game starts.
+     * @param journalDirectory the directory, which is created if needed, or null to only keep journals in memory
+     */
+    public void setJournalDirectory(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
     }
 
     /**
-     * Handle what should happen when a particular block is clicked
-     * @param gameBlock the block that was clicked
+     * Set whether this is a marathon game
+     * @param marathon true if this is a marathon game
      */
+    public void setMarathon(boolean marathon) {
+        this.marathon = marathon;
+    }
 
-    public void blockClicked(GameBlock gameBlock) {
-        //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-        logger.info("new block aim: {},{}",x,y );
+    /**
+     * Check whether this is a marathon game
+     * @return true if this is a marathon game
+     */
+    public boolean isMarathon() {
+        return marathon;
+    }
 
-        if (grid.canPlayPiece(x,y,currentPiece)) {
-            grid.playPiece(x,y,currentPiece);
-            multimedia.playAudioFile("/sounds/place.wav");
+    /**
+     * Get the journal of this game
+     * @return the journal, or null if the game has not started
+     */
+    public GameJournal getJournal() {
+        return journal;
+    }
 
-            afterPiece();
-        } else {
-            multimedia.playAudioFile("/sounds/fail.wav");
+    /**
+     * Stop recording the journal without the game ending, for example when the player quits
+     */
+    public void closeJournal() {
+        if (journal != null) {
+            journal.close();
         }
+    }
+
+    /**
+     * Set the generator which decides which piece comes next. Should be set before the game starts.
+     * @param pieceGenerator the generator to use
+     */
+    public void setPieceGenerator(PieceGenerator pieceGenerator) {
+        this.pieceGenerator = pieceGenerator;
+    }
 
+    /**
+     * Get the generator which decides which piece comes next
+     * @return the generator
+     */
+    public PieceGenerator getPieceGenerator() {
+        return pieceGenerator;
+    }
+
+    /**
+     * Handle what should happen when a particular block is clicked
+     * @param x the column of the block that was clicked
+     * @param y the row of the block that was clicked
+     */
+    public void blockClicked(int x, int y) {
+        logger.info("new block aim: {},{}",x,y );
+        placePiece(x,y);
     }
 
     /**
      * Handle what should happen when a block is placed at the current aim
      */
     public void placePieceAtAim() {
-        int x = currentBlockAimedAt[0];
-        int y = currentBlockAimedAt[1];
-        if (grid.canPlayPiece(x,y,currentPiece)) {
-            grid.playPiece(x,y,currentPiece);
+        placePiece(currentBlockAimedAt[0],currentBlockAimedAt[1]);
+    }
+
+    /**
+     * Play the current piece at the given coordinates, if it can be played there
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     */
+    protected void placePiece(int x, int y) {
+        journal.place(x,y);
+        if (engine.place(x,y)) {
             multimedia.playAudioFile("/sounds/place.wav");
+            if (engine.getLastLinesCleared() > 0) {
+                multimedia.playAudioFile("/sounds/clear.wav");
+            }
             afterPiece();
         } else {
             multimedia.playAudioFile("/sounds/fail.wav");
         }
     }
 
+    /**
+     * Play the current piece at a placement, for example one chosen by a bot
+     * @param placement how many times to rotate the current piece to the right, and where to play it
+     */
+    public void playPlacement(Placement placement) {
+        if (placement.rotation() != 0) {
+            journal.rotate(placement.rotation());
+        }
+        engine.rotateCurrentPiece(placement.rotation());
+        placePiece(placement.x(),placement.y());
+    }
+
+    /**
+     * Work out the best place to play the current piece, looking ahead to the next piece. Takes at most
+     * HINT_BUDGET_MILLIS.
+     * @return the best placement, or null if the game has not started or the piece does not fit anywhere
+     */
+    public Placement getHint() {
+        if (!engine.isStarted()) {
+            return null;
+        }
+        if (hintSearch == null) {
+            hintSearch = new PlacementSearch(WeightedHeuristic.defaults(), new TranspositionTable(16));
+        }
+        return hintSearch.findBest(grid, engine.getCurrentPiece(), engine.getNextPiece(), engine.getMultiplier(),
+                HINT_BUDGET_MILLIS * 1_000_000L);
+    }
+
     /**
      * Change the the current aim
      * @param x the x coordinate of the new aim
@@ -258,124 +390,22 @@ public class Game {
      */
     public void afterPiece() {
 
-        timer.cancel();
+        updateProperties();
         startTimeLoop();
-        gameLoopListener.gameLoop(timer,false,false);
-
-        clearLines();
-        currentPiece = nextPiece;
-        nextPiece = generatePiece();
-        nextPieceListener.nextPiece(currentPiece,nextPiece);
-        logger.info("Your new piece is: " + currentPiece.getValue());
-
-    }
-
-
-    /**
-     * Check the board for any lines that need to be cleared and clear them
-     */
-    public void clearLines() {
-
-        HashSet<String> blocksToClear = new HashSet<>();
-        int clearedLines = 0;
-
-        //A hashset is created and then two loops are run to add any blocks that are to be cleared to the hashset
-
-        for (int i = 0; i < grid.getRows(); i++) {
-            int[][] currentColumn = new int[getRows()][2];
-            for (int j = 0; j < grid.getCols(); j++) {
-                currentColumn[j][0] = i;
-                currentColumn[j][1] = j;
-            }
-            if (shouldLineBeCleared(currentColumn)) {
-                clearedLines += 1;
-
-                for (int[] ints : currentColumn) {
-                    if (!blocksToClear.contains(Arrays.toString(new int[]{ints[0], ints[1]}))) {
-                        blocksToClear.add(Arrays.toString(new int[]{ints[0], ints[1]}));
-                    }
-                }
-            }
-        }
-
-        for (int i = 0; i < grid.getCols(); i++) {
-            int[][] currentRow = new int[getCols()][2];
-            for (int j = 0; j < grid.getRows(); j++) {
-                currentRow[j][0] = j;
-                currentRow[j][1] = i;
-            }
-            if (shouldLineBeCleared(currentRow)) {
-                clearedLines += 1;
-                for (int k = 0; k < currentRow.length; k++) {
-                    if (!blocksToClear.contains(Arrays.toString(new int[]{currentRow[k][0], currentRow[k][1]}))) {
-                        blocksToClear.add(Arrays.toString(new int[]{currentRow[k][0], currentRow[k][1]}));
-                    }
-                }
-            }
-        }
-
-
-        Iterator<String> blocksToClearIterator = blocksToClear.iterator();
-        if (!blocksToClear.isEmpty()) {
-            updateScore(clearedLines,blocksToClear.size());
-            multiplier.set(multiplier.getValue() + 1);
-            level.set((int) Math.floor((double) score.getValue() /1000));
-            //updates level
-            //send blocks to clear animation
-            lineClearedListener.lineCleared(blocksToClear);
-
-        } else {
-            multiplier.set(1);
-        }
-        while (blocksToClearIterator.hasNext()) {
-            clearBlocks(blocksToClearIterator.next());
-
-        }
-
-    }
+        gameLoopListener.gameLoop(false,false);
 
-    /**
-     * Updates the score
-     * @param lines the number of lines that were cleared
-     * @param blocksCleared the number of blocks that were cleared
-     */
-    public void updateScore(int lines, int blocksCleared) {
+        logger.info("Your new piece is: " + engine.getCurrentPiece().getValue());
 
-        score.set(score.getValue() + (lines * 10 * blocksCleared * multiplier.getValue()));
     }
 
     /**
-     * checks if a line of blocks should be cleared
-     * @param line an array of lines which are to be checked if they should be cleared or note
-     * @return completeLine a boolean value indicating whether the line should be cleared or not.
+     * Update the score, level, lives and multiplier properties from the engine
      */
-    public boolean shouldLineBeCleared(int[][] line) {
-        //Check if every coordinated given contains a block
-        boolean completeLine = true;
-
-        for (int i = 0; i < line.length; i++) {
-            if (grid.get(line[i][0],line[i][1]) == 0 ) {
-                completeLine = false;
-            }
-        }
-        return completeLine;
-    }
-
-    /**
-     * Clears the blocks passed in as the parameter
-     * @param blockCoords the coordinates of blocks to be cleared
-     */
-    public void  clearBlocks(String blockCoords) {
-
-        String[] strings = blockCoords.replace("[", "").replace("]", "").split(", ");
-        int intCoords[] = new int[strings.length];
-        for (int i = 0; i < intCoords.length; i++) {
-            intCoords[i] = Integer.parseInt(strings[i]);
-        }
-
-        grid.set(intCoords[0],intCoords[1],0);
-        multimedia.playAudioFile("/sounds/clear.wav");
-
+    protected void updateProperties() {
+        score.set(engine.getScore());
+        level.set(engine.getLevel());
+        lives.set(engine.getLives());
+        multiplier.set(engine.getMultiplier());
     }
 
 
@@ -408,7 +438,7 @@ public class Game {
      * @param listener NextPieceListener to set
      */
     public void setNextPieceListener(NextPieceListener listener) {
-        nextPieceListener = listener;
+        engine.setNextPieceListener(listener);
     }
 
     /**
@@ -428,14 +458,15 @@ public class Game {
      * @param listener LineClearedListener to set
      */
     public void setLineClearedListener(LineClearedListener listener) {
-        lineClearedListener = listener;
+        engine.setLineClearedListener(listener);
     }
 
     /**
      * Rotates the current piece to the right
      */
     public void rotateCurrentPieceRight() {
-        currentPiece.rotateRight();
+        journal.rotate(1);
+        engine.rotateCurrentPiece(1);
         multimedia.playAudioFile("/sounds/rotate.wav");
     }
 
@@ -443,7 +474,8 @@ public class Game {
      * Rotates the current piece to the left
      */
     public void rotateCurrentPieceLeft() {
-        currentPiece.rotateLeft();
+        journal.rotate(-1);
+        engine.rotateCurrentPiece(-1);
         multimedia.playAudioFile("/sounds/rotate.wav");
     }
 
@@ -451,11 +483,8 @@ public class Game {
      * Swaps the current piece and the next piece
      */
     public void swapCurrentPiece() {
-        GamePiece currentPieceTemp = currentPiece;
-
-        currentPiece = nextPiece;
-        nextPiece = currentPieceTemp;
-
+        journal.swap();
+        engine.swapCurrentPiece();
         multimedia.playAudioFile("/sounds/rotate.wav");
     }
 
@@ -464,14 +493,14 @@ public class Game {
      * @return currentPiece the current piece
      */
     public GamePiece getCurrentPiece() {
-        return currentPiece;
+        return engine.getCurrentPiece();
     }
     /**
      * Gets the next GamePiece
      * @return nextPiece the next piece
      */
     public GamePiece getNextPiece() {
-        return nextPiece;
+        return engine.getNextPiece();
     }
 
 
@@ -480,70 +509,67 @@ public class Game {
      * @return timerDelay is how much time the user has to place a piece
      */
     public long getTimerDelay() {
-        long maxDelay = 2500;
-        long change = 12000 - (500L * level.getValue());
-        if (change <= maxDelay) {
-            return maxDelay;
-        } else {
-            return change;
-        }
+        return engine.getTimerDelay();
+    }
+
+    /**
+     * Get the engine which runs the rules of this game
+     * @return the engine
+     */
+    public GameEngine getEngine() {
+        return engine;
     }
 
     /**
      * Handles the logic for the loop of the game
      */
     public void gameLoop() {
-        multiplier.set(1);
         multimedia.playAudioFile("/sounds/lifelose.wav");
 
+        journal.timeout();
+        boolean gameOver = engine.timeout();
+        updateProperties();
 
-        if (lives.getValue()-1==-1) {
+        if (gameOver) {
             //if the user runs out of lives then the game should end
-            timer.cancel();
-            gameLoopListener.gameLoop(timer,true,true);
-            currentPiece = nextPiece;
-            nextPiece = generatePiece();
-
-            nextPieceListener.nextPiece(currentPiece,nextPiece);
-
-
+            endGame();
         } else {
-            currentPiece = nextPiece;
-
-            nextPiece = this.generatePiece();
-
-            timer.cancel();
-            gameLoopListener.gameLoop(timer,true,false);
             startTimeLoop();
-
-            nextPieceListener.nextPiece(currentPiece,nextPiece);
-            lives.set(lives.getValue()-1);
+            gameLoopListener.gameLoop(true,false);
         }
 
     }
 
-
     /**
-     * Starts a time loop which keeps on repeating changing the time for it to run at by calling the getTimerDelay method
+     * Handle the game ending because the user ran out of lives
      */
-    public void startTimeLoop() {
-        timer = new Timer();
+    protected void endGame() {
+        clock.cancel();
+        journal.end(engine.getScore(), grid);
+        gameLoopListener.gameLoop(true,true);
+    }
 
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                gameLoop();
-            }
-        };
 
-        timer.schedule(task, getTimerDelay(), getTimerDelay());
+    /**
+     * Starts the time loop, or restarts it with a new deadline taken from the getTimerDelay method
+     */
+    public void startTimeLoop() {
+        clock.start(getTimerDelay(), timeout);
     }
 
     /**
      * Cancels the time loop
      */
     public void cancelTimer() {
-        timer.cancel();
+        clock.cancel();
+    }
+
+    /**
+     * Set the executor on which the game loop is run when the player runs out of time, for example Platform::runLater
+     * @param executor the executor to run timeouts on
+     */
+    public void setTimeoutExecutor(Executor executor) {
+        clock.setTimeoutExecutor(executor);
     }
 
 }
@@ -0,0 +1,105 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GameClock keeps track of how long the player has left to place a piece.
+ *
+ * Every clock shares a single scheduler thread, so restarting the clock after every placement only moves the deadline
+ * and never creates a new thread. When the deadline passes, the timeout is handed to the clock's executor, so it is
+ * always delivered on one well-defined thread (for example the JavaFX application thread). A timeout which is
+ * delivered after the clock has already been restarted or cancelled is dropped.
+ */
+public class GameClock {
+
+    /**
+     * The scheduler shared by every game clock
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The executor on which timeouts are delivered
+     */
+    private Executor timeoutExecutor;
+
+    /**
+     * The timeout which is currently scheduled
+     */
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Increased every time the clock is started or cancelled, so a stale timeout can be recognised and dropped
+     */
+    private long generation;
+
+    /**
+     * Create a new clock which delivers timeouts on the scheduler thread
+     */
+    public GameClock() {
+        this(Runnable::run);
+    }
+
+    /**
+     * Create a new clock which delivers timeouts on the given executor
+     * @param timeoutExecutor the executor to deliver timeouts on
+     */
+    public GameClock(Executor timeoutExecutor) {
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    /**
+     * Set the executor on which timeouts are delivered
+     * @param timeoutExecutor the executor to deliver timeouts on
+     */
+    public synchronized void setTimeoutExecutor(Executor timeoutExecutor) {
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    /**
+     * Start the clock, replacing any deadline which was already set
+     * @param delay the number of milliseconds until the timeout
+     * @param onTimeout called when the deadline passes
+     */
+    public synchronized void start(long delay, Runnable onTimeout) {
+        cancel();
+        long startedGeneration = generation;
+        Executor executor = timeoutExecutor;
+        pending = scheduler.schedule(() -> executor.execute(() -> deliver(startedGeneration, onTimeout)),
+                delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the clock, so no timeout will be delivered until it is started again
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Run a timeout, as long as the clock has not been restarted or cancelled since it was scheduled
+     * @param startedGeneration the generation of the clock when the timeout was scheduled
+     * @param onTimeout the timeout to run
+     */
+    private void deliver(long startedGeneration, Runnable onTimeout) {
+        synchronized (this) {
+            if (startedGeneration != generation) {
+                return;
+            }
+            pending = null;
+        }
+        onTimeout.run();
+    }
+
+}
@@ -0,0 +1,367 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.LineClearedListener;
+import uk.ac.soton.comp1206.event.NextPieceListener;
+
+import java.util.function.Supplier;
+
+/**
+ * The GameEngine holds the rules of TetrECS: placing pieces on the board, clearing lines, scoring, levels and lives.
+ *
+ * It has no dependency on JavaFX, sound or the network, and does not keep time itself, so it can run as fast as it is
+ * driven, for example to simulate games without a display. The Game class adapts it to the JavaFX properties, sounds and
+ * timer used by the scenes.
+ */
+public class GameEngine {
+
+    /**
+     * The number of lives a game starts with
+     */
+    public static final int STARTING_LIVES = 3;
+
+    /**
+     * The board the game is played on
+     */
+    private final Board board;
+
+    /**
+     * Supplies every new piece
+     */
+    private final Supplier<GamePiece> pieceSupplier;
+
+    /**
+     * The blocks cleared by the last placement, reused between placements
+     */
+    private final BlockCoordinateSet blocksToClear;
+
+    /**
+     * The listener to call when the current and next pieces move on
+     */
+    private NextPieceListener nextPieceListener;
+
+    /**
+     * The listener to call with the blocks of a line clear, before they are emptied
+     */
+    private LineClearedListener lineClearedListener;
+
+    /**
+     * The current piece that is to be played
+     */
+    private GamePiece currentPiece;
+
+    /**
+     * The next piece that is to be played after the current one
+     */
+    private GamePiece nextPiece;
+
+    /**
+     * The score for the game
+     */
+    private int score;
+
+    /**
+     * The current level for the game
+     */
+    private int level;
+
+    /**
+     * The number of lives left
+     */
+    private int lives = STARTING_LIVES;
+
+    /**
+     * The multiplier for the game
+     */
+    private int multiplier = 1;
+
+    /**
+     * The number of lines cleared by the last placement
+     */
+    private int lastLinesCleared;
+
+    /**
+     * Whether the game has ended
+     */
+    private boolean gameOver;
+
+    /**
+     * Create a new engine with its own board of the given size, which generates random pieces
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public GameEngine(int cols, int rows) {
+        this(cols, rows, PieceGenerator.randomSeed());
+    }
+
+    /**
+     * Create a new engine with its own board of the given size, which generates random pieces from a seed. Two engines
+     * made with the same seed and given the same moves play out the same game.
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed for the pieces
+     */
+    public GameEngine(int cols, int rows, long seed) {
+        this(new Board(cols, rows), PieceGenerator.uniform(seed));
+    }
+
+    /**
+     * Create a new engine which plays on the given board
+     * @param board the board to play on
+     * @param pieceSupplier supplies every new piece
+     */
+    public GameEngine(Board board, Supplier<GamePiece> pieceSupplier) {
+        this.board = board;
+        this.pieceSupplier = pieceSupplier;
+        this.blocksToClear = new BlockCoordinateSet(board.getCols(), board.getRows());
+    }
+
+    /**
+     * Start the game by taking the current and next piece
+     */
+    public void start() {
+        currentPiece = pieceSupplier.get();
+        nextPiece = pieceSupplier.get();
+        if (nextPieceListener != null) {
+            nextPieceListener.nextPiece(currentPiece, nextPiece);
+        }
+    }
+
+    /**
+     * Check whether the game has started and has a piece to play
+     * @return true if the game has started
+     */
+    public boolean isStarted() {
+        return currentPiece != null;
+    }
+
+    /**
+     * Check whether the current piece can be played at the given coordinates
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @return true if the piece can be played
+     */
+    public boolean canPlayPiece(int x, int y) {
+        return currentPiece != null && !gameOver && board.canPlayPiece(x, y, currentPiece);
+    }
+
+    /**
+     * Play the current piece at the given coordinates, clear any full lines and move on to the next piece
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @return true if the piece was played, false if it could not be played there
+     */
+    public boolean place(int x, int y) {
+        if (!canPlayPiece(x, y)) {
+            return false;
+        }
+        board.playPiece(x, y, currentPiece);
+        clearLines();
+        nextPiece();
+        return true;
+    }
+
+    /**
+     * Check the board for any lines that need to be cleared and clear them
+     * @return the number of lines cleared
+     */
+    public int clearLines() {
+
+        blocksToClear.clear();
+        int clearedLines = 0;
+
+        //Every full column and row is added to the set of blocks to clear, so blocks on a crossing are only counted once
+
+        for (int x = 0; x < board.getCols(); x++) {
+            if (board.isColumnFull(x)) {
+                clearedLines += 1;
+                blocksToClear.addColumn(x);
+            }
+        }
+
+        for (int y = 0; y < board.getRows(); y++) {
+            if (board.isRowFull(y)) {
+                clearedLines += 1;
+                blocksToClear.addRow(y);
+            }
+        }
+
+        lastLinesCleared = clearedLines;
+        if (clearedLines > 0) {
+            updateScore(clearedLines, blocksToClear.size());
+            multiplier++;
+            level = score / 1000;
+
+            //Let the display animate the blocks before they are emptied
+            if (lineClearedListener != null) {
+                lineClearedListener.lineCleared(blocksToClear);
+            }
+            board.clearBlocks(blocksToClear);
+        } else {
+            multiplier = 1;
+        }
+        return clearedLines;
+    }
+
+    /**
+     * Handle the player running out of time to play the current piece. A life is lost and the next piece is taken,
+     * or the game ends if there were no lives left.
+     * @return true if the game has ended
+     */
+    public boolean timeout() {
+        multiplier = 1;
+        if (lives == 0) {
+            gameOver = true;
+        } else {
+            lives--;
+        }
+        nextPiece();
+        return gameOver;
+    }
+
+    /**
+     * Rotate the current piece to the right the given number of times
+     * @param rotations number of rotations, which can be negative to rotate left
+     */
+    public void rotateCurrentPiece(int rotations) {
+        if (currentPiece != null) {
+            currentPiece = currentPiece.rotate(rotations);
+        }
+    }
+
+    /**
+     * Swap the current piece and the next piece
+     */
+    public void swapCurrentPiece() {
+        GamePiece currentPieceTemp = currentPiece;
+        currentPiece = nextPiece;
+        nextPiece = currentPieceTemp;
+    }
+
+    /**
+     * Gets how long the player has to place a piece, based on the current level
+     * @return the time in milliseconds
+     */
+    public long getTimerDelay() {
+        return Math.max(2500, 12000 - 500L * level);
+    }
+
+    /**
+     * Updates the score
+     * @param lines the number of lines that were cleared
+     * @param blocksCleared the number of blocks that were cleared
+     */
+    protected void updateScore(int lines, int blocksCleared) {
+        score += scoreFor(lines, blocksCleared, multiplier);
+    }
+
+    /**
+     * Gets the score for a single placement
+     * @param lines the number of lines that were cleared
+     * @param blocksCleared the number of blocks that were cleared
+     * @param multiplier the multiplier at the time
+     * @return the score
+     */
+    public static int scoreFor(int lines, int blocksCleared, int multiplier) {
+        return lines * 10 * blocksCleared * multiplier;
+    }
+
+    /**
+     * Move the next piece to the current piece and take a new next piece
+     */
+    private void nextPiece() {
+        currentPiece = nextPiece;
+        nextPiece = pieceSupplier.get();
+        if (nextPieceListener != null) {
+            nextPieceListener.nextPiece(currentPiece, nextPiece);
+        }
+    }
+
+    /**
+     * Set the listener to call when the current and next pieces move on
+     * @param listener listener to set
+     */
+    public void setNextPieceListener(NextPieceListener listener) {
+        this.nextPieceListener = listener;
+    }
+
+    /**
+     * Set the listener to call with the blocks of a line clear, before they are emptied
+     * @param listener listener to set
+     */
+    public void setLineClearedListener(LineClearedListener listener) {
+        this.lineClearedListener = listener;
+    }
+
+    /**
+     * Get the board the game is played on
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the current piece
+     * @return the current piece
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Gets the next piece
+     * @return the next piece
+     */
+    public GamePiece getNextPiece() {
+        return nextPiece;
+    }
+
+    /**
+     * Get the score
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the level
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the number of lives left
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the multiplier
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Get the number of lines cleared by the last placement
+     * @return number of lines
+     */
+    public int getLastLinesCleared() {
+        return lastLinesCleared;
+    }
+
+    /**
+     * Check whether the game has ended
+     * @return true if the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+}
@@ -1,8 +1,14 @@
 package uk.ac.soton.comp1206.game;
 
+import java.util.Arrays;
+
 /**
  * Instances of GamePiece Represents the model of a specific Game Piece with it's block makeup.
  *
+ * Every piece in every one of its four orientations is built once, when the class is loaded, and shared from then on.
+ * A GamePiece is therefore immutable: rotating a piece returns the piece for the new orientation instead of changing
+ * this one.
+ *
  * The GamePiece class also contains a factory for producing a GamePiece of a particular shape, as specified by it's
  * number.
  */
@@ -14,120 +20,126 @@ public class GamePiece {
     public static final int PIECES = 15;
 
     /**
-     * The 2D grid representation of the shape of this piece
+     * The number of orientations each piece can be rotated into
      */
-    private int[][] blocks;
+    public static final int ORIENTATIONS = 4;
 
     /**
-     * The value of this piece
+     * The names of every piece, by piece number
      */
-    private final int value;
+    private static final String[] NAMES = {
+            "Line", "C", "Plus", "Dot", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner",
+            "Diagonal", "Double"
+    };
 
     /**
-     * The name of this piece
+     * The shape of every piece before it has been rotated, by piece number
      */
-    private final String name;
-
-    /**
-     * Create a new GamePiece of the specified piece number
-     * @param piece piece number
-     * @return the created GamePiece
-     */
-    public static GamePiece createPiece(int piece) {
-        switch (piece) {
+    private static final int[][][] SHAPES = {
             //Line
-            case 0 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Line", blocks, 1);
-            }
-
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}},
             //C
-            case 1 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}};
-                return new GamePiece("C", blocks, 2);
-            }
-
+            {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}},
             //Plus
-            case 2 -> {
-                int[][] blocks = {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}};
-                return new GamePiece("Plus", blocks, 3);
-            }
-
+            {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}},
             //Dot
-            case 3 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Dot", blocks, 4);
-            }
-
+            {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}},
             //Square
-            case 4 -> {
-                int[][] blocks = {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Square", blocks, 5);
-            }
-
+            {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}},
             //L
-            case 5 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}};
-                return new GamePiece("L", blocks, 6);
-            }
-
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}},
             //J
-            case 6 -> {
-                int[][] blocks = {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("J", blocks, 7);
-            }
-
+            {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}},
             //S
-            case 7 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}};
-                return new GamePiece("S", blocks, 8);
-            }
-
+            {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}},
             //Z
-            case 8 -> {
-                int[][] blocks = {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Z", blocks, 9);
-            }
-
+            {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}},
             //T
-            case 9 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("T", blocks, 10);
-            }
-
+            {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}},
             //X
-            case 10 -> {
-                int[][] blocks = {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}};
-                return new GamePiece("X", blocks, 11);
-            }
-
+            {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}},
             //Corner
-            case 11 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("Corner", blocks, 12);
-            }
-
+            {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}},
             //Inverse Corner
-            case 12 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Inverse Corner", blocks, 13);
-            }
-
+            {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}},
             //Diagonal
-            case 13 -> {
-                int[][] blocks = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
-                return new GamePiece("Diagonal", blocks, 14);
+            {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+            //Double
+            {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}}
+    };
+
+    /**
+     * Every piece in every orientation, by piece number and then orientation
+     */
+    private static final GamePiece[][] PIECE_TABLE = new GamePiece[PIECES][ORIENTATIONS];
+
+    static {
+        for (int piece = 0; piece < PIECES; piece++) {
+            int value = piece + 1;
+
+            //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
+            int[][] blocks = new int[3][3];
+            for (int x = 0; x < 3; x++) {
+                for (int y = 0; y < 3; y++) {
+                    blocks[x][y] = SHAPES[piece][x][y] == 0 ? 0 : value;
+                }
             }
 
-            //Double
-            case 14 -> {
-                int[][] blocks = {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Double", blocks, 15);
+            for (int orientation = 0; orientation < ORIENTATIONS; orientation++) {
+                PIECE_TABLE[piece][orientation] = new GamePiece(NAMES[piece], blocks, piece, orientation);
+                blocks = rotateBlocksRight(blocks);
             }
         }
+    }
+
+    /**
+     * The 2D grid representation of the shape of this piece
+     */
+    private final int[][] blocks;
+
+    /**
+     * The number of this piece
+     */
+    private final int type;
+
+    /**
+     * The number of times this piece has been rotated to the right, from 0 to 3
+     */
+    private final int orientation;
 
-        //Not a valid piece number
-        throw new IndexOutOfBoundsException("No such piece: " + piece);
+    /**
+     * The value of this piece
+     */
+    private final int value;
+
+    /**
+     * The name of this piece
+     */
+    private final String name;
+
+    /**
+     * The shape of this piece as a 9-bit mask. Bit (dy + 1) * 3 + (dx + 1) is set if the block at an offset of dx
+     * columns and dy rows from the middle of the piece is part of it.
+     */
+    private final int mask;
+
+    /**
+     * The column offset from the middle of the piece of each block in the piece
+     */
+    private final int[] offsetX;
+
+    /**
+     * The row offset from the middle of the piece of each block in the piece
+     */
+    private final int[] offsetY;
+
+    /**
+     * Create a new GamePiece of the specified piece number
+     * @param piece piece number
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece) {
+        return createPiece(piece, 0);
     }
 
     /**
@@ -137,31 +149,47 @@ public class GamePiece {
      * @return the created GamePiece
      */
     public static GamePiece createPiece(int piece, int rotation) {
-        var newPiece = createPiece(piece);
-
-        newPiece.rotate(rotation);
-        return newPiece;
+        if (piece < 0 || piece >= PIECES) {
+            //Not a valid piece number
+            throw new IndexOutOfBoundsException("No such piece: " + piece);
+        }
+        return PIECE_TABLE[piece][Math.floorMod(rotation, ORIENTATIONS)];
     }
 
     /**
-     * Create a new GamePiece with the given name, block makeup and value. Should not be called directly, only via the
-     * factory.
+     * Create a new GamePiece with the given name, block makeup, number and orientation. Should not be called directly,
+     * only when building the table of pieces.
      * @param name name of the piece
      * @param blocks block makeup of the piece
-     * @param value the value of this piece
+     * @param type the number of the piece
+     * @param orientation the orientation of the piece
      */
-    private GamePiece(String name, int[][] blocks, int value) {
+    private GamePiece(String name, int[][] blocks, int type, int orientation) {
         this.name = name;
         this.blocks = blocks;
-        this.value = value;
-
-        //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
-        for(int x = 0; x < blocks.length; x++) {
-            for (int y = 0; y < blocks[x].length; y++) {
-                if(blocks[x][y] == 0) continue;
-                blocks[x][y] = value;
+        this.type = type;
+        this.orientation = orientation;
+        this.value = type + 1;
+
+        //Work out the mask and the offset of every block, where blocks[i][j] sits at (j - 1, 1 - i) from the middle
+        int mask = 0;
+        int count = 0;
+        int[] offsetX = new int[9];
+        int[] offsetY = new int[9];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (blocks[i][j] == 0) continue;
+                int dx = j - 1;
+                int dy = 1 - i;
+                mask |= 1 << ((dy + 1) * 3 + (dx + 1));
+                offsetX[count] = dx;
+                offsetY[count] = dy;
+                count++;
             }
         }
+        this.mask = mask;
+        this.offsetX = Arrays.copyOf(offsetX, count);
+        this.offsetY = Arrays.copyOf(offsetY, count);
     }
 
     /**
@@ -173,7 +201,23 @@ public class GamePiece {
     }
 
     /**
-     * Get the block makeup of this piece
+     * Get the number of this piece
+     * @return piece number
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the number of times this piece has been rotated to the right
+     * @return orientation, from 0 to 3
+     */
+    public int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * Get the block makeup of this piece. The grid is shared between every use of this piece and must not be changed.
      * @return 2D grid of the blocks representing the piece shape
      */
     public int[][] getBlocks() {
@@ -181,55 +225,77 @@ public class GamePiece {
     }
 
     /**
-     * Rotate this piece the given number of rotations
-     * @param rotations number of rotations
+     * Get the shape of this piece as a 9-bit mask
+     * @return the mask of this piece
      */
-    public void rotate(int rotations) {
-        for(int rotated = 0; rotated < rotations; rotated ++) {
-            rotateRight();
-        }
+    public int getMask() {
+        return mask;
     }
 
     /**
-     * Rotate this piece exactly once to the right by rotating it's 3x3 grid
+     * Get the number of blocks in this piece
+     * @return number of blocks
      */
-    public void rotateRight() {
-        int[][] rotated = new int[blocks.length][blocks[0].length];
-        rotated[2][0] = blocks[0][0];
-        rotated[1][0] = blocks[0][1];
-        rotated[0][0] = blocks[0][2];
-
-        rotated[2][1] = blocks[1][0];
-        rotated[1][1] = blocks[1][1];
-        rotated[0][1] = blocks[1][2];
-
-        rotated[2][2] = blocks[2][0];
-        rotated[1][2] = blocks[2][1];
-        rotated[0][2] = blocks[2][2];
-
-        blocks = rotated;
+    public int getBlockCount() {
+        return offsetX.length;
     }
+
     /**
-     * Rotate this piece exactly once to the left by rotating it's 3x3 grid
+     * Get the column offset from the middle of the piece of one of its blocks
+     * @param block the block, from 0 to getBlockCount() - 1
+     * @return the column offset, from -1 to 1
      */
-    public void rotateLeft() {
-
-        int[][] rotated = new int[blocks.length][blocks[0].length];
-        rotated[0][0] = blocks[2][0];
-        rotated[1][0] = blocks[2][1];
-        rotated[2][0] = blocks[2][2];
+    public int getOffsetX(int block) {
+        return offsetX[block];
+    }
 
-        rotated[0][1] = blocks[1][0];
-        rotated[1][1] = blocks[1][1];
-        rotated[2][1] = blocks[1][2];
+    /**
+     * Get the row offset from the middle of the piece of one of its blocks
+     * @param block the block, from 0 to getBlockCount() - 1
+     * @return the row offset, from -1 to 1
+     */
+    public int getOffsetY(int block) {
+        return offsetY[block];
+    }
 
-        rotated[0][2] = blocks[0][0];
-        rotated[1][2] = blocks[0][1];
-        rotated[2][2] = blocks[0][2];
+    /**
+     * Get this piece rotated the given number of rotations
+     * @param rotations number of rotations
+     * @return the rotated piece
+     */
+    public GamePiece rotate(int rotations) {
+        return PIECE_TABLE[type][Math.floorMod(orientation + rotations, ORIENTATIONS)];
+    }
 
-        blocks = rotated;
+    /**
+     * Get this piece rotated exactly once to the right
+     * @return the rotated piece
+     */
+    public GamePiece rotateRight() {
+        return rotate(1);
+    }
 
+    /**
+     * Get this piece rotated exactly once to the left
+     * @return the rotated piece
+     */
+    public GamePiece rotateLeft() {
+        return rotate(-1);
+    }
 
+    /**
+     * Rotate a 3x3 grid of blocks once to the right
+     * @param blocks the grid to rotate
+     * @return a new rotated grid
+     */
+    private static int[][] rotateBlocksRight(int[][] blocks) {
+        int[][] rotated = new int[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                rotated[2 - j][i] = blocks[i][j];
+            }
+        }
+        return rotated;
     }
 
 
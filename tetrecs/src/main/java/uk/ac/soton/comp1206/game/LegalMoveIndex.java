@@ -0,0 +1,251 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of everywhere every piece can be played on a Board. For each distinct piece shape there is a bitset with
+ * one bit for every block of the board, set if the shape can be played with its middle on that block.
+ *
+ * When a block is filled or emptied only the shapes played on the 3x3 blocks around it can change, so the index is
+ * updated there rather than rebuilt. Checking a placement is then a single bit test, and the number of places a shape
+ * fits is always known.
+ */
+public class LegalMoveIndex {
+
+    /**
+     * The number of possible 9-bit piece masks
+     */
+    private static final int MASKS = 1 << 9;
+
+    /**
+     * The mask of every distinct shape, by slot
+     */
+    private static final int[] SHAPE_MASKS;
+
+    /**
+     * The slot of every mask, or -1 if no piece has that shape
+     */
+    private static final int[] SLOTS = new int[MASKS];
+
+    /**
+     * For every mask of occupied blocks around a point, the shapes which can be played there, with bit n set for slot n
+     */
+    private static final long[] FITTING_SHAPES = new long[MASKS];
+
+    static {
+        Arrays.fill(SLOTS, -1);
+        int[] masks = new int[GamePiece.PIECES * GamePiece.ORIENTATIONS];
+        int shapes = 0;
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+                int mask = GamePiece.createPiece(piece, rotation).getMask();
+                if (SLOTS[mask] < 0) {
+                    SLOTS[mask] = shapes;
+                    masks[shapes++] = mask;
+                }
+            }
+        }
+        SHAPE_MASKS = Arrays.copyOf(masks, shapes);
+
+        //There are fewer than 64 shapes, so the shapes which fit at a point are a single long
+        for (int surrounding = 0; surrounding < MASKS; surrounding++) {
+            for (int slot = 0; slot < shapes; slot++) {
+                if ((surrounding & SHAPE_MASKS[slot]) == 0) {
+                    FITTING_SHAPES[surrounding] |= 1L << slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * The board which is indexed
+     */
+    private final Board board;
+
+    /**
+     * The number of columns of the board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows of the board
+     */
+    private final int rows;
+
+    /**
+     * The number of longs in the bitset of each shape
+     */
+    private final int words;
+
+    /**
+     * Where every shape can be played, as one bitset after another, with bit y * cols + x for each block
+     */
+    private final long[] legal;
+
+    /**
+     * The number of places every shape can be played, by slot
+     */
+    private final int[] counts = new int[SHAPE_MASKS.length];
+
+    /**
+     * The shapes which can be played at every point, with bit n set for slot n, indexed by row and then column
+     */
+    private final long[] fitting;
+
+    /**
+     * Create a new index of a board and build it
+     * @param board the board to index
+     */
+    public LegalMoveIndex(Board board) {
+        this.board = board;
+        this.cols = board.getCols();
+        this.rows = board.getRows();
+        this.words = (cols * rows + 63) >>> 6;
+        this.legal = new long[SHAPE_MASKS.length * words];
+        this.fitting = new long[cols * rows];
+        rebuild();
+    }
+
+    /**
+     * Work out every place every shape can be played from scratch
+     */
+    public void rebuild() {
+        Arrays.fill(legal, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(fitting, 0);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                update(x, y);
+            }
+        }
+    }
+
+    /**
+     * Update the index after a block has been filled or emptied
+     * @param x column
+     * @param y row
+     */
+    public void occupancyChanged(int x, int y) {
+        int fromX = Math.max(0, x - 1);
+        int toX = Math.min(cols - 1, x + 1);
+        int fromY = Math.max(0, y - 1);
+        int toY = Math.min(rows - 1, y + 1);
+        for (int anchorY = fromY; anchorY <= toY; anchorY++) {
+            for (int anchorX = fromX; anchorX <= toX; anchorX++) {
+                update(anchorX, anchorY);
+            }
+        }
+    }
+
+    /**
+     * Check whether a piece can be played at the given coordinates
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @param piece the piece
+     * @return true if the piece can be played there
+     */
+    public boolean canPlay(int x, int y, GamePiece piece) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return false;
+        }
+        int bit = y * cols + x;
+        return (legal[slot(piece) * words + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Count the places a piece can be played
+     * @param piece the piece, in the rotation to count
+     * @return the number of places
+     */
+    public int count(GamePiece piece) {
+        return counts[slot(piece)];
+    }
+
+    /**
+     * Check whether a piece can be played anywhere in any rotation
+     * @param piece the piece
+     * @return true if there is somewhere to play it
+     */
+    public boolean canPlayAnywhere(GamePiece piece) {
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            if (counts[slot(piece.rotate(rotation))] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visit every place a piece can be played, in row order
+     * @param piece the piece, in the rotation to visit
+     * @param consumer called with the x and y coordinates of the block midpoint of each place
+     */
+    public void forEach(GamePiece piece, BlockCoordinateSet.BlockConsumer consumer) {
+        int offset = slot(piece) * words;
+        for (int word = 0; word < words; word++) {
+            long bits = legal[offset + word];
+            while (bits != 0) {
+                int bit = (word << 6) + Long.numberOfTrailingZeros(bits);
+                consumer.accept(bit % cols, bit / cols);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Find the n-th place a piece can be played, in row order
+     * @param piece the piece, in the rotation to look in
+     * @param n which place, from 0 to count(piece) - 1
+     * @return the place as y * cols + x, or -1 if there are not that many places
+     */
+    public int find(GamePiece piece, int n) {
+        int offset = slot(piece) * words;
+        for (int word = 0; word < words; word++) {
+            long bits = legal[offset + word];
+            int inWord = Long.bitCount(bits);
+            if (n < inWord) {
+                for (int skip = 0; skip < n; skip++) {
+                    bits &= bits - 1;
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            n -= inWord;
+        }
+        return -1;
+    }
+
+    /**
+     * Work out which shapes can be played with their middle on a single block
+     * @param x column
+     * @param y row
+     */
+    private void update(int x, int y) {
+        int bit = y * cols + x;
+        long fits = FITTING_SHAPES[board.getSurroundingMask(x, y)];
+        long changed = fitting[bit] ^ fits;
+        if (changed == 0) {
+            return;
+        }
+        fitting[bit] = fits;
+
+        //Only the shapes which started or stopped fitting are touched
+        int word = bit >>> 6;
+        long flag = 1L << bit;
+        while (changed != 0) {
+            int slot = Long.numberOfTrailingZeros(changed);
+            legal[slot * words + word] ^= flag;
+            counts[slot] += (fits & (1L << slot)) != 0 ? 1 : -1;
+            changed &= changed - 1;
+        }
+    }
+
+    /**
+     * Get the slot of the shape of a piece
+     * @param piece the piece
+     * @return the slot
+     */
+    private static int slot(GamePiece piece) {
+        return SLOTS[piece.getMask()];
+    }
+
+}
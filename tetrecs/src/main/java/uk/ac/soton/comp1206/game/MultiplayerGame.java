@@ -1,6 +1,5 @@
 package uk.ac.soton.comp1206.game;
 
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.multimedia.Multimedia;
 import uk.ac.soton.comp1206.network.Communicator;
 
@@ -11,17 +10,53 @@ import java.util.*;
 public class MultiplayerGame extends Game{
 
     /**
-     * The queue of pieces from which the pieces are taken from
+     * The number of pieces asked for in each request to the server
      */
-    private ArrayList<GamePiece> piecesQueue;
+    private static final int PIECES_PER_REQUEST = 10;
+
+    /**
+     * More pieces are asked for when fewer than this many are queued or on their way
+     */
+    private static final int MINIMUM_QUEUED_PIECES = 5;
+
+    /**
+     * Whether BOARD messages are sent as packed snapshots and deltas by default. Other clients on the server only
+     * understand the old space separated format, so this is off unless the tetrecs.packedBoards system property is
+     * set to true, and should only be turned on when every player in the channel can decode the packed format.
+     */
+    public static final boolean PACKED_BOARDS = Boolean.getBoolean("tetrecs.packedBoards");
+
+    /**
+     * The queue of pieces from which the pieces are taken from, in the order the server sent them
+     */
+    private final ArrayDeque<GamePiece> piecesQueue;
+
+    /**
+     * The number of pieces which have been asked for but not received yet
+     */
+    private int requestedPieces;
+
+    /**
+     * A placement or timeout which is waiting for the server to send the piece that comes after it, or null if there is
+     * none
+     */
+    private Runnable heldMove;
     /**
      * The communicator which is used to send messages
      */
     private Communicator communicator;
     /**
-     * The list of current users in the game and their scores
+     * The scores of the users in the game
+     */
+    private final ScoreTable scoreTable;
+    /**
+     * Encodes the board for BOARD messages, sending only the blocks which changed where it can
+     */
+    private final BoardCodec boardCodec;
+    /**
+     * Whether BOARD messages are sent as packed snapshots and deltas rather than in the old format
      */
-    private ArrayList<String> usersAndScores;
+    private boolean packedBoards = PACKED_BOARDS;
 
     /**
      * Create a new game with the specified rows and columns. Creates a corresponding grid model.
@@ -33,8 +68,14 @@ public class MultiplayerGame extends Game{
     public MultiplayerGame(int cols, int rows,Communicator communicator) {
         super(cols, rows);
         this.communicator = communicator;
-        piecesQueue = new ArrayList<>();
-        usersAndScores = new ArrayList<>();
+        piecesQueue = new ArrayDeque<>();
+        scoreTable = new ScoreTable();
+        boardCodec = new BoardCodec(grid);
+
+        //Tell the other players whenever the score or lives change
+        score.addListener((observable, oldValue, newValue) ->
+                communicator.sendLatest("SCORE", "SCORE " + newValue));
+        lives.addListener((observable, oldValue, newValue) -> communicator.send("LIVES " + newValue));
 
     }
 
@@ -53,206 +94,152 @@ public class MultiplayerGame extends Game{
      */
     public void initialiseGame() {
         logger.info("Initialising game");
+        openJournal();
 
-        //Send a request for pieces
+        //Send a request for pieces, the game starts once the first two have arrived
         sendPiecesRequest();
 
         currentBlockAimedAt = new int[]{0, 0};
         aimChangedListener.aimChanged(currentBlockAimedAt,currentBlockAimedAt);
 
         startTimeLoop();
-        gameLoopListener.gameLoop(timer,false,false);
+        gameLoopListener.gameLoop(false,false);
         multimedia = new Multimedia();
 
-        communicator.send("BOARD " + grid.getGridState());
+        sendBoard();
 
 
     }
 
 
     /**
-     * Update the users and scores arraylist with the score for the specified user
-     * @param nameAndScore the name and score of the user whos score is to be updated
+     * Update the score, lives and state of a player
+     * @param name the name of the player
+     * @param score the score of the player
+     * @param lives the lives the player has left
+     * @param alive whether the player is still playing
      */
-    public void updateScores(String nameAndScore) {
-
-        if (usersAndScores.isEmpty()) {
-            usersAndScores.add(nameAndScore);
-        } else {
-            boolean updateNameAndScore = false;
-            boolean nameAndScoreInList = false;
-            int indexToReplace = 0;
-            for (String userAndScore: usersAndScores) {
-                if (Objects.equals(userAndScore.split(":")[0], nameAndScore.split(":")[0])) {
-                    indexToReplace = usersAndScores.indexOf(userAndScore);
-                    updateNameAndScore = true;
-                    nameAndScoreInList = true;
-                }
-
-            }
-            if (updateNameAndScore) {
-                usersAndScores.set(indexToReplace,nameAndScore);
-            }
-            if (!nameAndScoreInList) {
-                usersAndScores.add(nameAndScore);
-            }
-        }
-
-
+    public void updateScores(String name, int score, int lives, boolean alive) {
+        scoreTable.update(name, score, lives, alive);
     }
 
     /**
-     * Returns the users and scores list
-     * @return usersAndScores, a list of users and scores
+     * Returns the scores of every player
+     * @return the score table
      */
-    public ArrayList<String> getUsersAndScores() {
-        return usersAndScores;
+    public ScoreTable getScoreTable() {
+        return scoreTable;
     }
 
 
     /**
-     * Handle what should happen when a particular block is clicked
-     * @param gameBlock the block that was clicked
+     * Handle what should happen after a piece is played
      */
+    public void afterPiece() {
 
-    public void blockClicked(GameBlock gameBlock) {
+        //Sends a BOARD message with the changes to the board
+        sendBoard();
 
-        //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-        logger.info("new block aim: {},{}",x,y );
+        super.afterPiece();
 
-        if (grid.canPlayPiece(x,y,currentPiece)) {
-            grid.playPiece(x,y,currentPiece);
-            multimedia.playAudioFile("/sounds/place.wav");
+    }
 
-            afterPiece();
+    /**
+     * Handle the game ending because the user ran out of lives
+     */
+    protected void endGame() {
+        communicator.send("DIE");
+        communicator.clearListeners();
+
+        super.endGame();
+    }
 
+    /**
+     * Play the current piece at the given coordinates. If the server has not sent the piece which comes after it yet,
+     * the placement is held until it arrives, so every player keeps taking pieces from the same sequence.
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     */
+    protected void placePiece(int x, int y) {
+        if (heldMove != null) {
+            return;
+        }
+        if (piecesQueue.isEmpty() && engine.canPlayPiece(x,y)) {
+            holdMove(() -> super.placePiece(x,y));
         } else {
-            multimedia.playAudioFile("/sounds/fail.wav");
+            super.placePiece(x,y);
         }
-
     }
 
-
-    public void placePieceAtAim() {
-        int x = currentBlockAimedAt[0];
-        int y = currentBlockAimedAt[1];
-        if (grid.canPlayPiece(x,y,currentPiece)) {
-            grid.playPiece(x,y,currentPiece);
-            multimedia.playAudioFile("/sounds/place.wav");
-            afterPiece();
-
+    /**
+     * Handles the player running out of time. If the server has not sent the piece which comes next yet, the timeout is
+     * held until it arrives.
+     */
+    public void gameLoop() {
+        if (heldMove != null) {
+            return;
+        }
+        if (piecesQueue.isEmpty()) {
+            holdMove(super::gameLoop);
         } else {
-            multimedia.playAudioFile("/sounds/fail.wav");
+            super.gameLoop();
         }
     }
 
-
     /**
-     * Handle what should happen after a piece is played
+     * Hold a move until the server sends another piece, stopping the clock while waiting
+     * @param move the move to make once the piece arrives
      */
-    public void afterPiece() {
-
-        communicator.send("BOARD " + grid.getGridState());
-        //Sends a BOARD message with the current state of the board
-
-        timer.cancel();
-        startTimeLoop();
-        gameLoopListener.gameLoop(timer,false,false);
-
-
-        clearLines();
-        piecesQueue.remove(0);
-        piecesQueue.remove(0);
-        currentPiece = nextPiece;
-        nextPiece = piecesQueue.get(0);
-        nextPieceListener.nextPiece(currentPiece,nextPiece);
+    private void holdMove(Runnable move) {
+        logger.warn("No pieces queued, waiting for the server");
+        clock.cancel();
+        heldMove = move;
         checkIfNeedToUpdateQueue();
-
-        logger.info("Your new piece is: " + currentPiece.getValue());
-
     }
 
     /**
-     * updates the score for the user
-     * @param lines the number of lines cleared
-     * @param blocksCleared the number of blocks cleared
+     * Takes the next piece from the queue of pieces sent by the server, asking for more when the queue runs low
+     * @return the next piece
      */
-    public void updateScore(int lines, int blocksCleared) {
-        score.set(score.getValue() + (lines * 10 * blocksCleared * multiplier.getValue()));
-        communicator.send("SCORE " + score.getValue());
+    public GamePiece generatePiece() {
+        GamePiece piece = piecesQueue.remove();
+        checkIfNeedToUpdateQueue();
+
+        //Pieces come from the server, so each one is recorded for the game to be replayed
+        journal.piece(piece);
+        return piece;
     }
 
     /**
-     * Handles the logic for the loop of the game
+     * Set whether BOARD messages are sent as packed snapshots and deltas. Should only be turned on when every player
+     * in the channel can decode them.
+     * @param packedBoards true to send packed states, false to send the old space separated format
      */
-    public void gameLoop() {
-
-        multiplier.set(1);
-        multimedia.playAudioFile("/sounds/lifelose.wav");
-
-        if (lives.getValue()-1==-1) {
-            //If lives run out, then the game ends
-            communicator.send("DIE");
-
-            communicator.clearListeners();
-            timer.cancel();
-            gameLoopListener.gameLoop(timer,true,true);
-
-            piecesQueue.remove(0);
-            piecesQueue.remove(0);
-            currentPiece = nextPiece;
-            nextPiece = piecesQueue.get(0);
-            checkIfNeedToUpdateQueue();
-
-
-            nextPieceListener.nextPiece(currentPiece,nextPiece);
-
-
-        } else {
-            piecesQueue.remove(0);
-            piecesQueue.remove(0);
-            currentPiece = nextPiece;
-            nextPiece = piecesQueue.get(0);
-            checkIfNeedToUpdateQueue();
-
-            timer.cancel();
-            gameLoopListener.gameLoop(timer,true,false);
-            startTimeLoop();
-
-            nextPieceListener.nextPiece(currentPiece,nextPiece);
-            lives.set(lives.getValue()-1);
-            communicator.send("LIVES " + lives.getValue());
-        }
-
+    public void setPackedBoards(boolean packedBoards) {
+        this.packedBoards = packedBoards;
     }
 
-
     /**
-     * Starts a time loop which keeps on repeating changing the time for it to run at by calling the getTimerDelay method
+     * Sends a BOARD message. A snapshot replaces any BOARD message which has not been sent yet, but a delta has to be
+     * sent after the messages before it.
      */
-    public void startTimeLoop() {
-        timer = new Timer();
-
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                gameLoop();
-            }
-        };
-
-        timer.schedule(task, getTimerDelay(), getTimerDelay());
+    private void sendBoard() {
+        String state = packedBoards ? boardCodec.encode() : grid.getGridState();
+        if (BoardCodec.isSnapshot(state)) {
+            communicator.sendLatest("BOARD", "BOARD " + state);
+        } else {
+            communicator.send("BOARD " + state);
+        }
     }
 
-
     /**
      * Sends a request to the server for pieces
      */
     private void sendPiecesRequest() {
-     for (int i = 0; i<10;i++) {
-         communicator.send("PIECE");
+        for (int i = 0; i < PIECES_PER_REQUEST; i++) {
+            communicator.send("PIECE");
         }
+        requestedPieces += PIECES_PER_REQUEST;
     }
 
     /**
@@ -260,7 +247,7 @@ public class MultiplayerGame extends Game{
      * another pieces request is sent
      */
     private void checkIfNeedToUpdateQueue() {
-        if (piecesQueue.size()<5) {
+        if (piecesQueue.size() + requestedPieces < MINIMUM_QUEUED_PIECES) {
             sendPiecesRequest();
         }
     }
@@ -269,18 +256,19 @@ public class MultiplayerGame extends Game{
      * Updates the piece queue
      * @param pieceType the type of piece to be added to the queue
      */
-    public void updatePiecesQueue(String pieceType) {
-        pieceType = pieceType.substring(6);
-        GamePiece gamePiece = GamePiece.createPiece(Integer.parseInt(pieceType));
-
-        piecesQueue.add(gamePiece);
-
-        if (piecesQueue.size()==2) {
-
-            //On the first creation of the pieces queue, set the currentPiece and the nextPiece
-            currentPiece = piecesQueue.get(0);
-            nextPiece = piecesQueue.get(1);
-            nextPieceListener.nextPiece(currentPiece,nextPiece);
+    public void updatePiecesQueue(int pieceType) {
+        piecesQueue.add(GamePiece.createPiece(pieceType));
+        requestedPieces = Math.max(0, requestedPieces - 1);
+
+        if (!engine.isStarted() && piecesQueue.size() >= 2) {
+            //Once the first two pieces have arrived, they become the current and next piece
+            journal.start();
+            engine.start();
+        } else if (heldMove != null) {
+            //The piece a held move was waiting for has arrived
+            Runnable move = heldMove;
+            heldMove = null;
+            move.run();
         }
     }
 
@@ -0,0 +1,112 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A PieceGenerator decides which piece comes next in a game. Every generator is driven by a single seeded source of
+ * randomness, so two generators of the same kind made with the same seed hand out exactly the same pieces.
+ *
+ * Upcoming pieces can be looked at before they are taken, without changing the order they come in.
+ */
+public interface PieceGenerator extends Supplier<GamePiece> {
+
+    /**
+     * Take the next piece
+     * @return the next piece
+     */
+    GamePiece next();
+
+    /**
+     * Look at an upcoming piece without taking it
+     * @param ahead how far ahead to look, where 0 is the piece next() will return
+     * @return the upcoming piece
+     * @throws IllegalArgumentException if ahead is negative or further than the generator can look
+     */
+    GamePiece peek(int ahead);
+
+    /**
+     * Get the seed the generator was created with
+     * @return the seed
+     */
+    long getSeed();
+
+    /**
+     * Describe the kind of generator, so the same generator can be made again with fromKind
+     * @return the kind, such as uniform or bag
+     */
+    String getKind();
+
+    /**
+     * Take the next piece, so a generator can be used wherever pieces are supplied
+     * @return the next piece
+     */
+    @Override
+    default GamePiece get() {
+        return next();
+    }
+
+    /**
+     * Create a generator where every piece is equally likely every time
+     * @param seed the seed
+     * @return the generator
+     */
+    static PieceGenerator uniform(long seed) {
+        return new UniformPieceGenerator(seed);
+    }
+
+    /**
+     * Create a generator which deals every piece once, in a shuffled order, before dealing any piece again
+     * @param seed the seed
+     * @return the generator
+     */
+    static PieceGenerator bag(long seed) {
+        return new BagPieceGenerator(seed);
+    }
+
+    /**
+     * Create a generator where each piece is picked in proportion to its weight
+     * @param seed the seed
+     * @param weights the weight of every piece, by piece number
+     * @return the generator
+     * @throws IllegalArgumentException if there is not one weight for every piece, a weight is negative, or every
+     * weight is 0
+     */
+    static PieceGenerator weighted(long seed, int... weights) {
+        return new WeightedPieceGenerator(seed, weights);
+    }
+
+    /**
+     * Create a generator from the description returned by getKind
+     * @param kind the kind of generator
+     * @param seed the seed
+     * @return the generator
+     * @throws IllegalArgumentException if the kind is not known
+     */
+    static PieceGenerator fromKind(String kind, long seed) {
+        if (kind.equals(UniformPieceGenerator.KIND)) {
+            return uniform(seed);
+        }
+        if (kind.equals(BagPieceGenerator.KIND)) {
+            return bag(seed);
+        }
+        if (kind.startsWith(WeightedPieceGenerator.KIND + ":")) {
+            String[] parts = kind.substring(WeightedPieceGenerator.KIND.length() + 1).split(",");
+            int[] weights = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                weights[i] = Integer.parseInt(parts[i]);
+            }
+            return weighted(seed, weights);
+        }
+        throw new IllegalArgumentException("Unknown piece generator: " + kind);
+    }
+
+    /**
+     * Pick a seed for a game which does not need to be reproduced
+     * @return a random seed
+     */
+    static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+}
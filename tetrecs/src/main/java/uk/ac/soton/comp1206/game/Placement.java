@@ -0,0 +1,10 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Where and how to play a piece
+ * @param x the x coordinate of the block midpoint
+ * @param y the y coordinate of the block midpoint
+ * @param rotation the number of times to rotate the current piece to the right before it is played
+ */
+public record Placement(int x, int y, int rotation) {
+}
@@ -0,0 +1,21 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Decides where a player without a display, such as a simulated player or a bot, plays the current piece.
+ *
+ * A policy may be used by many games on many threads at once, so any state it keeps between calls has to be safe to
+ * share.
+ */
+public interface PlacementPolicy {
+
+    /**
+     * Choose where to play the current piece of a game
+     * @param engine the game, which should not be changed
+     * @param random the source of randomness for this game, for policies which need one
+     * @return where to play the piece, or null if it cannot be played anywhere
+     */
+    Placement choose(GameEngine engine, SplittableRandom random);
+
+}
@@ -0,0 +1,10 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * The latest score, lives and state of a player in a multiplayer game
+ * @param name the name of the player
+ * @param score the score of the player
+ * @param lives the lives the player has left
+ * @param alive whether the player is still playing
+ */
+public record PlayerEntry(String name, int score, int lives, boolean alive) {}
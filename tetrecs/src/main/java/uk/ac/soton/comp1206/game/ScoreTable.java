@@ -0,0 +1,76 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The scores of every player in a multiplayer game, by name.
+ *
+ * Players are looked up by name, and iterating the table gives them highest score first, with ties in name order.
+ */
+public class ScoreTable implements Iterable<PlayerEntry> {
+
+    /**
+     * The order players are iterated in
+     */
+    private static final Comparator<PlayerEntry> ORDER = Comparator.comparingInt(PlayerEntry::score).reversed()
+            .thenComparing(PlayerEntry::name);
+
+    /**
+     * The latest entry for each player, by name
+     */
+    private final Map<String, PlayerEntry> players = new HashMap<>();
+
+    /**
+     * The same entries, kept in order
+     */
+    private final NavigableSet<PlayerEntry> ordered = new TreeSet<>(ORDER);
+
+    /**
+     * Set the score, lives and state of a player, adding them if they are not in the table yet
+     * @param name the name of the player
+     * @param score the score of the player
+     * @param lives the lives the player has left
+     * @param alive whether the player is still playing
+     */
+    public synchronized void update(String name, int score, int lives, boolean alive) {
+        var entry = new PlayerEntry(name, score, lives, alive);
+        var previous = players.put(name, entry);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(entry);
+    }
+
+    /**
+     * Get the entry for a player
+     * @param name the name of the player
+     * @return the entry, or null if the player is not in the table
+     */
+    public synchronized PlayerEntry get(String name) {
+        return players.get(name);
+    }
+
+    /**
+     * Get the number of players in the table
+     * @return the number of players
+     */
+    public synchronized int size() {
+        return players.size();
+    }
+
+    /**
+     * Iterate over a copy of the players, highest score first
+     * @return an iterator over the players
+     */
+    @Override
+    public synchronized Iterator<PlayerEntry> iterator() {
+        return List.copyOf(ordered).iterator();
+    }
+
+}
@@ -0,0 +1,107 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * The base of every PieceGenerator. Holds the single source of randomness, created once from the seed, and a ring
+ * buffer of piece numbers which have been generated early so they can be looked at before they are taken.
+ *
+ * Pieces themselves are shared by GamePiece, so generating a piece does not allocate anything.
+ */
+public abstract class SeededPieceGenerator implements PieceGenerator {
+
+    /**
+     * How many pieces ahead can be looked at. Must be a power of 2.
+     */
+    public static final int LOOKAHEAD = 16;
+
+    /**
+     * The seed the generator was created with
+     */
+    private final long seed;
+
+    /**
+     * The source of randomness for every piece
+     */
+    protected final SplittableRandom random;
+
+    /**
+     * The piece numbers generated early, in the order they will be taken
+     */
+    private final int[] lookahead = new int[LOOKAHEAD];
+
+    /**
+     * The position in the lookahead buffer of the next piece
+     */
+    private int head;
+
+    /**
+     * The number of piece numbers in the lookahead buffer
+     */
+    private int buffered;
+
+    /**
+     * Create a new generator
+     * @param seed the seed
+     */
+    protected SeededPieceGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generate the number of the next piece
+     * @return a piece number from 0 to GamePiece.PIECES - 1
+     */
+    protected abstract int nextType();
+
+    /**
+     * Take the next piece, from the lookahead buffer if it has already been generated
+     * @return the next piece
+     */
+    @Override
+    public GamePiece next() {
+        if (buffered == 0) {
+            return GamePiece.createPiece(nextType());
+        }
+        int type = lookahead[head];
+        head = (head + 1) & (LOOKAHEAD - 1);
+        buffered--;
+        return GamePiece.createPiece(type);
+    }
+
+    /**
+     * Look at an upcoming piece, generating every piece up to it into the lookahead buffer
+     * @param ahead how far ahead to look, where 0 is the piece next() will return
+     * @return the upcoming piece
+     * @throws IllegalArgumentException if ahead is negative or not less than LOOKAHEAD
+     */
+    @Override
+    public GamePiece peek(int ahead) {
+        if (ahead < 0 || ahead >= LOOKAHEAD) {
+            throw new IllegalArgumentException("Can only look 0 to " + (LOOKAHEAD - 1) + " pieces ahead: " + ahead);
+        }
+        while (buffered <= ahead) {
+            lookahead[(head + buffered) & (LOOKAHEAD - 1)] = nextType();
+            buffered++;
+        }
+        return GamePiece.createPiece(lookahead[(head + ahead) & (LOOKAHEAD - 1)]);
+    }
+
+    /**
+     * Generate every piece the lookahead buffer can hold, so no more pieces are generated until they are taken
+     */
+    public void fillLookahead() {
+        peek(LOOKAHEAD - 1);
+    }
+
+    /**
+     * Get the seed the generator was created with
+     * @return the seed
+     */
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+}
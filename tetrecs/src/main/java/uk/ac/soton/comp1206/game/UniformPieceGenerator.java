@@ -0,0 +1,39 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Generates pieces where every piece is equally likely every time, the same as the original game
+ */
+public class UniformPieceGenerator extends SeededPieceGenerator {
+
+    /**
+     * The kind of this generator
+     */
+    public static final String KIND = "uniform";
+
+    /**
+     * Create a new generator
+     * @param seed the seed
+     */
+    public UniformPieceGenerator(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Pick any piece
+     * @return the piece number
+     */
+    @Override
+    protected int nextType() {
+        return random.nextInt(GamePiece.PIECES);
+    }
+
+    /**
+     * Describe the kind of generator
+     * @return the kind
+     */
+    @Override
+    public String getKind() {
+        return KIND;
+    }
+
+}
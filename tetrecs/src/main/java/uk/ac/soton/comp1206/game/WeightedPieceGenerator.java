@@ -0,0 +1,79 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Generates pieces where each piece is picked in proportion to its weight, for example to make the larger pieces rarer
+ */
+public class WeightedPieceGenerator extends SeededPieceGenerator {
+
+    /**
+     * The kind of this generator, which is followed by the weights when it is described
+     */
+    public static final String KIND = "weighted";
+
+    /**
+     * The running total of the weights, by piece number
+     */
+    private final int[] cumulativeWeights = new int[GamePiece.PIECES];
+
+    /**
+     * The total of every weight
+     */
+    private final int totalWeight;
+
+    /**
+     * Create a new generator
+     * @param seed the seed
+     * @param weights the weight of every piece, by piece number
+     * @throws IllegalArgumentException if there is not one weight for every piece, a weight is negative, or every
+     * weight is 0
+     */
+    public WeightedPieceGenerator(long seed, int... weights) {
+        super(seed);
+        if (weights.length != GamePiece.PIECES) {
+            throw new IllegalArgumentException("Expected " + GamePiece.PIECES + " weights, got " + weights.length);
+        }
+        int total = 0;
+        for (int piece = 0; piece < weights.length; piece++) {
+            if (weights[piece] < 0) {
+                throw new IllegalArgumentException("Negative weight for piece " + piece + ": " + weights[piece]);
+            }
+            total = Math.addExact(total, weights[piece]);
+            cumulativeWeights[piece] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one piece needs a weight");
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Pick a piece in proportion to its weight
+     * @return the piece number
+     */
+    @Override
+    protected int nextType() {
+        int pick = random.nextInt(totalWeight);
+        int piece = 0;
+        while (cumulativeWeights[piece] <= pick) {
+            piece++;
+        }
+        return piece;
+    }
+
+    /**
+     * Describe the kind of generator, with every weight
+     * @return the kind
+     */
+    @Override
+    public String getKind() {
+        StringBuilder kind = new StringBuilder(KIND).append(':');
+        for (int piece = 0; piece < cumulativeWeights.length; piece++) {
+            if (piece > 0) {
+                kind.append(',');
+            }
+            kind.append(cumulativeWeights[piece] - (piece == 0 ? 0 : cumulativeWeights[piece - 1]));
+        }
+        return kind.toString();
+    }
+
+}
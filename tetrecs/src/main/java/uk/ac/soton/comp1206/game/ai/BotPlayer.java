@@ -0,0 +1,158 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.Game;
+import uk.ac.soton.comp1206.game.Placement;
+import uk.ac.soton.comp1206.game.PlacementPolicy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a Game on its own, such as a MultiplayerGame played as a bot opponent. Every turn, after waiting a little as a
+ * player would, the bot asks its policy where to play the current piece and plays it.
+ *
+ * Turns are timed on a thread shared by every bot, but each move is made on the move executor, which should be the
+ * thread the game is played on, such as Platform::runLater.
+ */
+public class BotPlayer {
+
+    private static final Logger logger = LogManager.getLogger(BotPlayer.class);
+
+    /**
+     * How long a bot waits before each move when none is given, in milliseconds
+     */
+    public static final long DEFAULT_THINK_MILLIS = 800;
+
+    /**
+     * How long the search may take for each move, in milliseconds
+     */
+    public static final long SEARCH_BUDGET_MILLIS = 20;
+
+    /**
+     * The scheduler shared by every bot
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The game the bot plays
+     */
+    private final Game game;
+
+    /**
+     * Decides where to play every piece
+     */
+    private final PlacementPolicy policy;
+
+    /**
+     * How long the bot waits before each move, in milliseconds
+     */
+    private final long thinkMillis;
+
+    /**
+     * The executor moves are made on
+     */
+    private final Executor moveExecutor;
+
+    /**
+     * The next turn, or null if the bot is stopped
+     */
+    private ScheduledFuture<?> nextTurn;
+
+    /**
+     * Create a new bot which plays the best placement found by a PlacementSearch
+     * @param game the game to play
+     * @param moveExecutor the executor to make moves on
+     */
+    public BotPlayer(Game game, Executor moveExecutor) {
+        this(game, new SearchPolicy(WeightedHeuristic.defaults(), SearchPolicy.DEFAULT_TABLE_BITS,
+                SEARCH_BUDGET_MILLIS), DEFAULT_THINK_MILLIS, moveExecutor);
+    }
+
+    /**
+     * Create a new bot
+     * @param game the game to play
+     * @param policy decides where to play every piece
+     * @param thinkMillis how long to wait before each move, in milliseconds
+     * @param moveExecutor the executor to make moves on
+     */
+    public BotPlayer(Game game, PlacementPolicy policy, long thinkMillis, Executor moveExecutor) {
+        this.game = game;
+        this.policy = policy;
+        this.thinkMillis = thinkMillis;
+        this.moveExecutor = moveExecutor;
+    }
+
+    /**
+     * Start playing. The game should already have been started.
+     */
+    public synchronized void start() {
+        if (nextTurn == null) {
+            logger.info("Bot playing");
+            scheduleTurn();
+        }
+    }
+
+    /**
+     * Stop playing
+     */
+    public synchronized void stop() {
+        if (nextTurn != null) {
+            nextTurn.cancel(false);
+            nextTurn = null;
+        }
+    }
+
+    /**
+     * Check whether the bot is playing
+     * @return true if the bot is playing
+     */
+    public synchronized boolean isPlaying() {
+        return nextTurn != null;
+    }
+
+    /**
+     * Schedule the next turn
+     */
+    private void scheduleTurn() {
+        nextTurn = scheduler.schedule(() -> moveExecutor.execute(this::takeTurn), thinkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Play the current piece, if the game has one, and schedule the next turn
+     */
+    private void takeTurn() {
+        synchronized (this) {
+            if (nextTurn == null) {
+                return;
+            }
+            if (game.getEngine().isGameOver()) {
+                nextTurn = null;
+                return;
+            }
+        }
+
+        //Until the game has its first pieces, or if the piece fits nowhere, the bot waits for the next turn
+        if (game.getEngine().isStarted()) {
+            Placement placement = policy.choose(game.getEngine(), null);
+            if (placement != null) {
+                game.playPlacement(placement);
+            }
+        }
+
+        synchronized (this) {
+            if (nextTurn != null) {
+                scheduleTurn();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import uk.ac.soton.comp1206.game.Board;
+
+/**
+ * Judges how good a move is for the PlacementSearch. The value of a move is the value of the points it scores plus the
+ * value of the board it leaves behind, where higher is better.
+ */
+public interface Heuristic {
+
+    /**
+     * Judge a board, regardless of how it was reached. Must only depend on which blocks are occupied, as boards are
+     * cached by their occupancy.
+     * @param board the board
+     * @return the value of the board
+     */
+    double evaluate(Board board);
+
+    /**
+     * Judge points scored by a move
+     * @param points the points
+     * @return the value of the points
+     */
+    double evaluateScore(int points);
+
+    /**
+     * Judge being left with a piece which cannot be played anywhere, which costs a life
+     * @return the value of losing a life, usually very negative
+     */
+    double evaluateLifeLost();
+
+}
@@ -0,0 +1,417 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import uk.ac.soton.comp1206.game.BlockCoordinateSet;
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.LegalMoveIndex;
+import uk.ac.soton.comp1206.game.Placement;
+
+import java.util.Arrays;
+
+/**
+ * Finds the best place to play the current piece. Every legal placement of the current piece, in every distinct
+ * rotation, is tried on a copy of the board and judged by a Heuristic. When the next piece is known, the search looks
+ * two moves ahead: each placement is then judged by the best placement of the next piece which can follow it.
+ *
+ * Boards are cached in a TranspositionTable by their Zobrist hash, so a board reached by more than one route, or seen
+ * again on a later move, is only judged once. Two move search is done in order of the one move values and stops when
+ * the time budget runs out, so an answer is always ready in time.
+ *
+ * A search keeps its own copies of the board and is not safe to share between threads.
+ */
+public class PlacementSearch {
+
+    /**
+     * Judges every move
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * Caches the values of boards
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The keys for the size of board being searched
+     */
+    private Zobrist zobrist;
+
+    /**
+     * A copy of the board being searched
+     */
+    private Board root;
+
+    /**
+     * The board after the current piece is played
+     */
+    private Board afterFirst;
+
+    /**
+     * The board after the next piece is played
+     */
+    private Board afterSecond;
+
+    /**
+     * The blocks cleared by the move being tried
+     */
+    private BlockCoordinateSet toClear;
+
+    /**
+     * The board the move being tried is played on
+     */
+    private Board working;
+
+    /**
+     * The hash of the working board
+     */
+    private long workingHash;
+
+    /**
+     * The points scored by the last move tried
+     */
+    private int lastPoints;
+
+    /**
+     * Empties a cleared block of the working board and updates its hash
+     */
+    private final BlockCoordinateSet.BlockConsumer clearBlock = (x, y) -> {
+        workingHash ^= zobrist.blockKey(x, y);
+        working.set(x, y, 0);
+    };
+
+    /**
+     * The placements of the current piece: x, y and rotation of each
+     */
+    private int[] candidates = new int[3 * 64];
+
+    /**
+     * The number of placements of the current piece
+     */
+    private int candidateCount;
+
+    /**
+     * The rotation of the placements being listed from a LegalMoveIndex
+     */
+    private int candidateRotation;
+
+    /**
+     * Adds each placement listed from a LegalMoveIndex
+     */
+    private final BlockCoordinateSet.BlockConsumer addIndexedCandidate = (x, y) -> addCandidate(x, y, candidateRotation);
+
+    /**
+     * The value of the points scored by each placement of the current piece
+     */
+    private double[] firstScore = new double[64];
+
+    /**
+     * The one move value of each placement of the current piece
+     */
+    private double[] firstValue = new double[64];
+
+    /**
+     * The placements of the current piece in order of their one move value, packed with the value in the high bits
+     */
+    private long[] order = new long[64];
+
+    /**
+     * The number of boards judged since the search was created
+     */
+    private long evaluated;
+
+    /**
+     * Create a new search
+     * @param heuristic judges every move
+     * @param table caches the values of boards
+     */
+    public PlacementSearch(Heuristic heuristic, TranspositionTable table) {
+        this.heuristic = heuristic;
+        this.table = table;
+    }
+
+    /**
+     * Find the best place to play the current piece
+     * @param board the board, which is not changed
+     * @param current the piece to play
+     * @param next the piece after it, or null to only look one move ahead
+     * @param multiplier the multiplier the current piece is played with
+     * @param budgetNanos how long the search may take, or 0 for no limit
+     * @return the best placement, or null if the current piece cannot be played anywhere
+     */
+    public Placement findBest(Board board, GamePiece current, GamePiece next, int multiplier, long budgetNanos) {
+        long deadline = budgetNanos <= 0 ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+        prepare(board);
+        root.copyFrom(board);
+        long rootHash = zobrist.hash(root);
+
+        //Try every placement of the current piece one move ahead
+        candidateCount = 0;
+        LegalMoveIndex index = board.getLegalMoveIndex();
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            GamePiece piece = current.rotate(rotation);
+            if (isRepeatedRotation(current, rotation)) {
+                continue;
+            }
+            if (index != null) {
+                //The board already knows where the piece fits
+                candidateRotation = rotation;
+                index.forEach(piece, addIndexedCandidate);
+                continue;
+            }
+            for (int y = 0; y < root.getRows(); y++) {
+                for (int x = 0; x < root.getCols(); x++) {
+                    if (root.canPlayPiece(x, y, piece)) {
+                        addCandidate(x, y, rotation);
+                    }
+                }
+            }
+        }
+        if (candidateCount == 0) {
+            return null;
+        }
+
+        int best = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            afterFirst.copyFrom(root);
+            long hash = play(afterFirst, rootHash, current, i, multiplier);
+            firstScore[i] = heuristic.evaluateScore(lastPoints);
+            firstValue[i] = firstScore[i] + evaluate(afterFirst, hash);
+            if (firstValue[i] > firstValue[best]) {
+                best = i;
+            }
+        }
+        if (next == null) {
+            return candidate(best);
+        }
+
+        //Look two moves ahead, best one move placements first, until the time runs out
+        for (int i = 0; i < candidateCount; i++) {
+            order[i] = (long) sortableKey(-firstValue[i]) << 32 | i;
+        }
+        Arrays.sort(order, 0, candidateCount);
+
+        int bestDeep = -1;
+        double bestDeepValue = Double.NEGATIVE_INFINITY;
+        for (int n = 0; n < candidateCount; n++) {
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+            int i = (int) order[n];
+            double value = firstScore[i] + followOn(rootHash, current, next, i, multiplier);
+            if (value > bestDeepValue) {
+                bestDeepValue = value;
+                bestDeep = i;
+            }
+        }
+        return candidate(bestDeep >= 0 ? bestDeep : best);
+    }
+
+    /**
+     * Get the value of the best placement of the next piece after a placement of the current piece
+     * @param rootHash the hash of the board before the current piece is played
+     * @param current the current piece
+     * @param next the next piece
+     * @param candidate the placement of the current piece
+     * @param multiplier the multiplier the current piece is played with
+     * @return the value of the best placement of the next piece and the board it leaves
+     */
+    private double followOn(long rootHash, GamePiece current, GamePiece next, int candidate, int multiplier) {
+        afterFirst.copyFrom(root);
+        long firstHash = play(afterFirst, rootHash, current, candidate, multiplier);
+        int nextMultiplier = lastPoints > 0 ? multiplier + 1 : 1;
+
+        long key = firstHash ^ zobrist.pieceKey(next) ^ zobrist.multiplierKey(nextMultiplier);
+        double cached = table.get(key);
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            GamePiece piece = next.rotate(rotation);
+            if (isRepeatedRotation(next, rotation)) {
+                continue;
+            }
+            for (int y = 0; y < afterFirst.getRows(); y++) {
+                for (int x = 0; x < afterFirst.getCols(); x++) {
+                    if (afterFirst.canPlayPiece(x, y, piece)) {
+                        afterSecond.copyFrom(afterFirst);
+                        long hash = apply(afterSecond, firstHash, piece, x, y, nextMultiplier);
+                        best = Math.max(best, heuristic.evaluateScore(lastPoints) + evaluate(afterSecond, hash));
+                    }
+                }
+            }
+        }
+        if (best == Double.NEGATIVE_INFINITY) {
+            //The next piece will not fit anywhere
+            best = heuristic.evaluateLifeLost() + evaluate(afterFirst, firstHash);
+        }
+
+        table.put(key, best);
+        return best;
+    }
+
+    /**
+     * Judge a board, using the cached value if it has been judged before
+     * @param board the board
+     * @param hash the hash of the board
+     * @return the value of the board
+     */
+    private double evaluate(Board board, long hash) {
+        double value = table.get(hash);
+        if (Double.isNaN(value)) {
+            value = heuristic.evaluate(board);
+            evaluated++;
+            table.put(hash, value);
+        }
+        return value;
+    }
+
+    /**
+     * Play a placement of the current piece
+     * @param board the board to play on
+     * @param hash the hash of the board
+     * @param current the current piece
+     * @param candidate the placement
+     * @param multiplier the multiplier the piece is played with
+     * @return the hash of the board afterwards
+     */
+    private long play(Board board, long hash, GamePiece current, int candidate, int multiplier) {
+        return apply(board, hash, current.rotate(candidates[candidate * 3 + 2]), candidates[candidate * 3],
+                candidates[candidate * 3 + 1], multiplier);
+    }
+
+    /**
+     * Play a piece and clear any lines it fills, as the GameEngine would, and remember the points scored
+     * @param board the board to play on
+     * @param hash the hash of the board
+     * @param piece the piece
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @param multiplier the multiplier the piece is played with
+     * @return the hash of the board afterwards
+     */
+    private long apply(Board board, long hash, GamePiece piece, int x, int y, int multiplier) {
+        working = board;
+        workingHash = hash;
+        for (int block = 0; block < piece.getBlockCount(); block++) {
+            int blockX = x + piece.getOffsetX(block);
+            int blockY = y + piece.getOffsetY(block);
+            board.set(blockX, blockY, piece.getValue());
+            workingHash ^= zobrist.blockKey(blockX, blockY);
+        }
+
+        //Only the lines the piece was played on can have become full
+        toClear.clear();
+        int lines = 0;
+        for (int row = Math.max(0, y - 1); row <= Math.min(board.getRows() - 1, y + 1); row++) {
+            if (board.isRowFull(row)) {
+                lines++;
+                toClear.addRow(row);
+            }
+        }
+        for (int col = Math.max(0, x - 1); col <= Math.min(board.getCols() - 1, x + 1); col++) {
+            if (board.isColumnFull(col)) {
+                lines++;
+                toClear.addColumn(col);
+            }
+        }
+
+        lastPoints = 0;
+        if (lines > 0) {
+            lastPoints = GameEngine.scoreFor(lines, toClear.size(), multiplier);
+            toClear.forEach(clearBlock);
+        }
+        return workingHash;
+    }
+
+    /**
+     * Make the copies of the board and the keys fit the size of board to search
+     * @param board the board to search
+     */
+    private void prepare(Board board) {
+        int cols = board.getCols();
+        int rows = board.getRows();
+        if (zobrist == null || !zobrist.fits(cols, rows)) {
+            zobrist = new Zobrist(cols, rows);
+            root = new Board(cols, rows);
+            afterFirst = new Board(cols, rows);
+            afterSecond = new Board(cols, rows);
+            toClear = new BlockCoordinateSet(cols, rows);
+            table.clear();
+        }
+    }
+
+    /**
+     * Add a placement of the current piece, growing the arrays if needed
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     * @param rotation the number of rotations to the right
+     */
+    private void addCandidate(int x, int y, int rotation) {
+        if (candidateCount == firstValue.length) {
+            int size = candidateCount * 2;
+            candidates = Arrays.copyOf(candidates, size * 3);
+            firstScore = Arrays.copyOf(firstScore, size);
+            firstValue = Arrays.copyOf(firstValue, size);
+            order = Arrays.copyOf(order, size);
+        }
+        candidates[candidateCount * 3] = x;
+        candidates[candidateCount * 3 + 1] = y;
+        candidates[candidateCount * 3 + 2] = rotation;
+        candidateCount++;
+    }
+
+    /**
+     * Get a placement of the current piece
+     * @param candidate the index of the placement
+     * @return the placement
+     */
+    private Placement candidate(int candidate) {
+        return new Placement(candidates[candidate * 3], candidates[candidate * 3 + 1], candidates[candidate * 3 + 2]);
+    }
+
+    /**
+     * Check whether a rotation of a piece has the same shape as a smaller rotation, so it does not need to be tried
+     * @param piece the piece
+     * @param rotation the rotation
+     * @return true if the shape has already been tried
+     */
+    private static boolean isRepeatedRotation(GamePiece piece, int rotation) {
+        int mask = piece.rotate(rotation).getMask();
+        for (int earlier = 0; earlier < rotation; earlier++) {
+            if (piece.rotate(earlier).getMask() == mask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turn a value into an int which sorts in the same order, at float precision
+     * @param value the value
+     * @return the sortable int
+     */
+    private static int sortableKey(double value) {
+        int bits = Float.floatToIntBits((float) value);
+        return bits < 0 ? bits ^ 0x7FFFFFFF : bits;
+    }
+
+    /**
+     * Get the number of boards judged since the search was created
+     * @return the number of boards
+     */
+    public long getEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Get the table the search caches boards in
+     * @return the table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+}
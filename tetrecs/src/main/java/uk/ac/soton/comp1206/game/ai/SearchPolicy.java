@@ -0,0 +1,61 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.Placement;
+import uk.ac.soton.comp1206.game.PlacementPolicy;
+
+import java.util.SplittableRandom;
+
+/**
+ * A PlacementPolicy which plays the best placement found by a PlacementSearch, for bots and simulated players. Every
+ * thread gets its own search and transposition table, so one policy can be shared by games on many threads.
+ */
+public class SearchPolicy implements PlacementPolicy {
+
+    /**
+     * The number of bits of the size of each thread's transposition table when none is given
+     */
+    public static final int DEFAULT_TABLE_BITS = 16;
+
+    /**
+     * How long each move may take, or 0 for no limit
+     */
+    private final long budgetNanos;
+
+    /**
+     * The search of every thread
+     */
+    private final ThreadLocal<PlacementSearch> searches;
+
+    /**
+     * Create a new policy with the default heuristic and no time limit, so its choices only depend on the game
+     */
+    public SearchPolicy() {
+        this(WeightedHeuristic.defaults(), DEFAULT_TABLE_BITS, 0);
+    }
+
+    /**
+     * Create a new policy
+     * @param heuristic judges every move
+     * @param tableBits each thread's table holds 2 to the power of this many values
+     * @param budgetMillis how long each move may take, or 0 for no limit
+     */
+    public SearchPolicy(Heuristic heuristic, int tableBits, long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.searches = ThreadLocal.withInitial(
+                () -> new PlacementSearch(heuristic, new TranspositionTable(tableBits)));
+    }
+
+    /**
+     * Choose the best placement of the current piece, looking ahead to the next piece
+     * @param engine the game
+     * @param random not used
+     * @return where to play the piece, or null if it does not fit anywhere
+     */
+    @Override
+    public Placement choose(GameEngine engine, SplittableRandom random) {
+        return searches.get().findBest(engine.getBoard(), engine.getCurrentPiece(), engine.getNextPiece(),
+                engine.getMultiplier(), budgetNanos);
+    }
+
+}
@@ -0,0 +1,120 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size cache of search values, keyed by Zobrist hash. Each hash has exactly one slot, and a new value always
+ * replaces whatever was in its slot, so the table never grows however long it is used.
+ *
+ * Not safe to share between threads.
+ */
+public class TranspositionTable {
+
+    /**
+     * The hash stored in every slot
+     */
+    private final long[] keys;
+
+    /**
+     * The value stored in every slot
+     */
+    private final double[] values;
+
+    /**
+     * Whether every slot holds a value
+     */
+    private final boolean[] used;
+
+    /**
+     * Picks the slot for a hash
+     */
+    private final int mask;
+
+    /**
+     * The number of lookups which found a value
+     */
+    private long hits;
+
+    /**
+     * The number of lookups which did not find a value
+     */
+    private long misses;
+
+    /**
+     * Create a new, empty table
+     * @param sizeBits the table holds 2 to the power of this many values
+     * @throws IllegalArgumentException if the size is not between 1 and 2^28 values
+     */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 0 || sizeBits > 28) {
+            throw new IllegalArgumentException("Table size must be between 0 and 28 bits: " + sizeBits);
+        }
+        int size = 1 << sizeBits;
+        keys = new long[size];
+        values = new double[size];
+        used = new boolean[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Look up the value stored for a hash
+     * @param key the hash
+     * @return the value, or NaN if there is none
+     */
+    public double get(long key) {
+        int slot = slot(key);
+        if (used[slot] && keys[slot] == key) {
+            hits++;
+            return values[slot];
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    /**
+     * Store the value for a hash, replacing whatever was in its slot
+     * @param key the hash
+     * @param value the value
+     */
+    public void put(long key, double value) {
+        int slot = slot(key);
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+    }
+
+    /**
+     * Empty the table
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Get the number of lookups which found a value
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which did not find a value
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Pick the slot for a hash, mixing the high bits in so similar hashes spread out
+     * @param key the hash
+     * @return the slot
+     */
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+}
@@ -0,0 +1,82 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import uk.ac.soton.comp1206.game.Board;
+
+/**
+ * A Heuristic made from a weighted sum of a few features of the board:
+ * how close each row and column is to being full, rewarding lines which are nearly cleared;
+ * isolated empty blocks, which only the Dot can fill;
+ * and occupied blocks, which leave less room for later pieces.
+ * @param scoreWeight the value of each point scored
+ * @param lineFillWeight the value of the sum of the squared fill of every row and column
+ * @param isolatedWeight the value of each isolated empty block
+ * @param occupiedWeight the value of each occupied block
+ * @param lifeLostValue the value of losing a life
+ */
+public record WeightedHeuristic(double scoreWeight, double lineFillWeight, double isolatedWeight,
+                                double occupiedWeight, double lifeLostValue) implements Heuristic {
+
+    /**
+     * The weights used when none are given
+     * @return the default heuristic
+     */
+    public static WeightedHeuristic defaults() {
+        return new WeightedHeuristic(1.0, 40.0, -60.0, -5.0, -10_000.0);
+    }
+
+    /**
+     * Judge a board by its weighted features
+     * @param board the board
+     * @return the value of the board
+     */
+    @Override
+    public double evaluate(Board board) {
+        int cols = board.getCols();
+        int rows = board.getRows();
+
+        double lineFill = 0;
+        int occupied = 0;
+        for (int y = 0; y < rows; y++) {
+            int count = board.getRowCount(y);
+            double fill = (double) count / cols;
+            lineFill += fill * fill;
+            occupied += count;
+        }
+        for (int x = 0; x < cols; x++) {
+            double fill = (double) board.getColumnCount(x) / rows;
+            lineFill += fill * fill;
+        }
+
+        int isolated = 0;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (!board.isOccupied(x, y) && board.isOccupied(x - 1, y) && board.isOccupied(x + 1, y)
+                        && board.isOccupied(x, y - 1) && board.isOccupied(x, y + 1)) {
+                    isolated++;
+                }
+            }
+        }
+
+        return lineFillWeight * lineFill + isolatedWeight * isolated + occupiedWeight * occupied;
+    }
+
+    /**
+     * Judge points scored by a move
+     * @param points the points
+     * @return the value of the points
+     */
+    @Override
+    public double evaluateScore(int points) {
+        return scoreWeight * points;
+    }
+
+    /**
+     * Judge losing a life
+     * @return the value of losing a life
+     */
+    @Override
+    public double evaluateLifeLost() {
+        return lifeLostValue;
+    }
+
+}
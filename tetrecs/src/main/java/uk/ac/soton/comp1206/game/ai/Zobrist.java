@@ -0,0 +1,122 @@
+package uk.ac.soton.comp1206.game.ai;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of boards. Every block has a random key, and the hash of a board is the XOR of the keys of its
+ * occupied blocks, so filling or emptying a block updates the hash with a single XOR.
+ *
+ * Only occupancy is hashed, not colour, as colour makes no difference to the rules.
+ */
+public class Zobrist {
+
+    /**
+     * The seed for every key, fixed so hashes are the same from run to run
+     */
+    private static final long SEED = 0x7E7EC5L;
+
+    /**
+     * The number of columns of the boards hashed
+     */
+    private final int cols;
+
+    /**
+     * The number of rows of the boards hashed
+     */
+    private final int rows;
+
+    /**
+     * The key of every block, indexed by row and then column
+     */
+    private final long[] blockKeys;
+
+    /**
+     * The key of every piece which is still to be played, by piece number
+     */
+    private final long[] pieceKeys = new long[GamePiece.PIECES];
+
+    /**
+     * The key of every multiplier, up to the largest one which is told apart
+     */
+    private final long[] multiplierKeys = new long[64];
+
+    /**
+     * Create the keys for boards of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public Zobrist(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        SplittableRandom random = new SplittableRandom(SEED);
+        blockKeys = new long[cols * rows];
+        for (int i = 0; i < blockKeys.length; i++) {
+            blockKeys[i] = random.nextLong();
+        }
+        for (int i = 0; i < pieceKeys.length; i++) {
+            pieceKeys[i] = random.nextLong();
+        }
+        for (int i = 0; i < multiplierKeys.length; i++) {
+            multiplierKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Hash a whole board
+     * @param board the board, which must be the size the keys were created for
+     * @return the hash
+     */
+    public long hash(Board board) {
+        long hash = 0;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (board.isOccupied(x, y)) {
+                    hash ^= blockKeys[y * cols + x];
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Get the key of a block, to XOR into a hash when the block is filled or emptied
+     * @param x column
+     * @param y row
+     * @return the key
+     */
+    public long blockKey(int x, int y) {
+        return blockKeys[y * cols + x];
+    }
+
+    /**
+     * Get the key of a piece, to XOR into a hash when which piece is still to be played matters
+     * @param piece the piece
+     * @return the key
+     */
+    public long pieceKey(GamePiece piece) {
+        return pieceKeys[piece.getType()];
+    }
+
+    /**
+     * Get the key of a multiplier, to XOR into a hash when the multiplier matters
+     * @param multiplier the multiplier
+     * @return the key
+     */
+    public long multiplierKey(int multiplier) {
+        return multiplierKeys[Math.min(multiplier, multiplierKeys.length - 1)];
+    }
+
+    /**
+     * Check whether these keys are for boards of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return true if the size matches
+     */
+    public boolean fits(int cols, int rows) {
+        return this.cols == cols && this.rows == rows;
+    }
+
+}
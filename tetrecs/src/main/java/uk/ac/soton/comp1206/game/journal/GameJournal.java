@@ -0,0 +1,309 @@
+package uk.ac.soton.comp1206.game.journal;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An append-only record of everything a player did in a game, so the game can be replayed exactly by a ReplayEngine.
+ *
+ * A journal starts with a header holding the size of the board and the seed and kind of piece generator. Every event
+ * after it is a single type byte, the time since the previous event and the event's values, with every number written
+ * as a variable length integer, so most events take 2 to 4 bytes.
+ *
+ * The journal is kept in memory, and every event can also be handed to a JournalWriter to be streamed to disk.
+ */
+public class GameJournal {
+
+    /**
+     * The first four bytes of every journal
+     */
+    public static final int MAGIC = 0x54454A31;
+
+    /**
+     * The type byte of a Start event
+     */
+    static final int START = 1;
+
+    /**
+     * The type byte of a Piece event
+     */
+    static final int PIECE = 2;
+
+    /**
+     * The type byte of a Rotate event
+     */
+    static final int ROTATE = 3;
+
+    /**
+     * The type byte of a Swap event
+     */
+    static final int SWAP = 4;
+
+    /**
+     * The type byte of a Place event
+     */
+    static final int PLACE = 5;
+
+    /**
+     * The type byte of a Timeout event
+     */
+    static final int TIMEOUT = 6;
+
+    /**
+     * The type byte of an End event
+     */
+    static final int END = 7;
+
+    /**
+     * Every byte of the journal so far, or only the event being recorded once the journal is streamed to a writer
+     */
+    private byte[] bytes = new byte[256];
+
+    /**
+     * The number of bytes of the journal so far
+     */
+    private int length;
+
+    /**
+     * When the journal was created, from System.nanoTime
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * The time of the last event, in milliseconds since the journal was created
+     */
+    private long lastTime;
+
+    /**
+     * Streams every event to disk, or null if the journal is only kept in memory
+     */
+    private JournalWriter writer;
+
+    /**
+     * Whether the journal has been closed, after which nothing more is recorded
+     */
+    private boolean closed;
+
+    /**
+     * Create a new journal and write its header
+     * @param cols the number of columns of the board
+     * @param rows the number of rows of the board
+     * @param generator the piece generator of the game
+     */
+    public GameJournal(int cols, int rows, PieceGenerator generator) {
+        writeInt(MAGIC);
+        writeVarint(cols);
+        writeVarint(rows);
+        writeLong(generator.getSeed());
+        byte[] kind = generator.getKind().getBytes(StandardCharsets.UTF_8);
+        writeVarint(kind.length);
+        ensureCapacity(kind.length);
+        System.arraycopy(kind, 0, bytes, length, kind.length);
+        length += kind.length;
+    }
+
+    /**
+     * Stream this journal to disk, starting with everything recorded so far. From then on the journal is no longer
+     * kept in memory.
+     * @param writer the writer to hand every event to
+     */
+    public void setWriter(JournalWriter writer) {
+        this.writer = writer;
+        writer.write(Arrays.copyOf(bytes, length));
+        length = 0;
+    }
+
+    /**
+     * Record the game taking its first two pieces
+     */
+    public void start() {
+        int from = beginEvent(START);
+        endEvent(from);
+    }
+
+    /**
+     * Record a piece being handed to the game from somewhere other than its piece generator
+     * @param piece the piece
+     */
+    public void piece(GamePiece piece) {
+        int from = beginEvent(PIECE);
+        writeVarint(piece.getType() * GamePiece.ORIENTATIONS + piece.getOrientation());
+        endEvent(from);
+    }
+
+    /**
+     * Record the current piece being rotated
+     * @param rotations the number of rotations to the right, negative for rotations to the left
+     */
+    public void rotate(int rotations) {
+        int from = beginEvent(ROTATE);
+        writeVarint((rotations << 1) ^ (rotations >> 31));
+        endEvent(from);
+    }
+
+    /**
+     * Record the current and next pieces being swapped
+     */
+    public void swap() {
+        int from = beginEvent(SWAP);
+        endEvent(from);
+    }
+
+    /**
+     * Record the player trying to play the current piece
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     */
+    public void place(int x, int y) {
+        int from = beginEvent(PLACE);
+        writeVarint(x);
+        writeVarint(y);
+        endEvent(from);
+    }
+
+    /**
+     * Record the player running out of time
+     */
+    public void timeout() {
+        int from = beginEvent(TIMEOUT);
+        endEvent(from);
+    }
+
+    /**
+     * Record the game ending, and close the journal
+     * @param score the final score
+     * @param board the final board
+     */
+    public void end(int score, Board board) {
+        int from = beginEvent(END);
+        writeVarint(score);
+        writeLong(hash(board));
+        endEvent(from);
+        close();
+    }
+
+    /**
+     * Close the journal, and the writer if there is one. Nothing more is recorded after this.
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Get a copy of every byte of the journal so far. A journal streamed to a writer is only on disk, so this is empty.
+     * @return the journal
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Check whether the journal has been closed
+     * @return true if nothing more is recorded
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Hash the value of every block of a board, to check a replay ends on the same board
+     * @param board the board
+     * @return the hash
+     */
+    public static long hash(Board board) {
+        //64-bit FNV-1a over every value in row order
+        long hash = 0xCBF29CE484222325L;
+        for (int y = 0; y < board.getRows(); y++) {
+            for (int x = 0; x < board.getCols(); x++) {
+                hash = (hash ^ board.get(x, y)) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Write the type and time of an event
+     * @param type the type byte
+     * @return where the event starts
+     */
+    private int beginEvent(int type) {
+        int from = length;
+        long time = (System.nanoTime() - startNanos) / 1_000_000;
+        ensureCapacity(1);
+        bytes[length++] = (byte) type;
+        writeVarint(time - lastTime);
+        lastTime = time;
+        return from;
+    }
+
+    /**
+     * Hand a finished event to the writer, if there is one
+     * @param from where the event starts
+     */
+    private void endEvent(int from) {
+        if (closed) {
+            //Nothing is recorded after the journal is closed, such as a timeout which fires as the game closes
+            length = from;
+            return;
+        }
+        if (writer != null) {
+            writer.write(Arrays.copyOfRange(bytes, from, length));
+            length = from;
+        }
+    }
+
+    /**
+     * Write a number as a variable length integer, 7 bits to a byte with the top bit set on every byte but the last
+     * @param value the number, which must not be negative
+     */
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * Write a number as 4 bytes, most significant first
+     * @param value the number
+     */
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            bytes[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Write a number as 8 bytes, most significant first
+     * @param value the number
+     */
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Grow the journal so there is room for more bytes
+     * @param needed the number of bytes needed
+     */
+    private void ensureCapacity(int needed) {
+        if (length + needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + needed));
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package uk.ac.soton.comp1206.game.journal;
+
+/**
+ * A single event recorded in a GameJournal. Every event has the time it happened, in milliseconds since the journal
+ * was started.
+ */
+public sealed interface JournalEvent {
+
+    /**
+     * Get the time the event happened
+     * @return milliseconds since the journal was started
+     */
+    long time();
+
+    /**
+     * The game took its first two pieces
+     * @param time when it happened
+     */
+    record Start(long time) implements JournalEvent {}
+
+    /**
+     * A piece was handed to the game from somewhere other than its piece generator, such as the server
+     * @param time when it happened
+     * @param type the piece number
+     * @param orientation the number of times the piece had been rotated to the right
+     */
+    record Piece(long time, int type, int orientation) implements JournalEvent {}
+
+    /**
+     * The current piece was rotated
+     * @param time when it happened
+     * @param rotations the number of rotations to the right, negative for rotations to the left
+     */
+    record Rotate(long time, int rotations) implements JournalEvent {}
+
+    /**
+     * The current and next pieces were swapped
+     * @param time when it happened
+     */
+    record Swap(long time) implements JournalEvent {}
+
+    /**
+     * The player tried to play the current piece, whether or not it fit
+     * @param time when it happened
+     * @param x the x coordinate of the block midpoint
+     * @param y the y coordinate of the block midpoint
+     */
+    record Place(long time, int x, int y) implements JournalEvent {}
+
+    /**
+     * The player ran out of time
+     * @param time when it happened
+     */
+    record Timeout(long time) implements JournalEvent {}
+
+    /**
+     * The game ended
+     * @param time when it happened
+     * @param score the final score
+     * @param gridHash the hash of the final board, from GameJournal.hash
+     */
+    record End(long time, int score, long gridHash) implements JournalEvent {}
+
+}
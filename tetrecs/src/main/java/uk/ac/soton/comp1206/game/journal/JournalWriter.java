@@ -0,0 +1,237 @@
+package uk.ac.soton.comp1206.game.journal;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the bytes of a journal to a file on a background thread, so recording an event never waits for the disk. The
+ * file is opened on that thread too, and everything handed over is flushed whenever the writer catches up.
+ *
+ * Every writer shares one thread. If a file cannot be written, the writer stops taking bytes rather than queueing them
+ * for the rest of the game. Only the newest KEEP_JOURNALS journals are kept in a directory.
+ */
+public class JournalWriter {
+
+    private static final Logger logger = LogManager.getLogger(JournalWriter.class);
+
+    /**
+     * The number of journals kept in a directory, older ones are deleted when a new one is opened
+     */
+    public static final int KEEP_JOURNALS = 20;
+
+    /**
+     * The file extension of journals
+     */
+    public static final String EXTENSION = ".journal";
+
+    /**
+     * The thread shared by every journal writer
+     */
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The file being written
+     */
+    private final Path file;
+
+    /**
+     * The number of chunks handed over but not written yet
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The open file, only used on the writer thread
+     */
+    private OutputStream out;
+
+    /**
+     * Whether close has been called
+     */
+    private volatile boolean closed;
+
+    /**
+     * Whether the file could not be written, after which everything handed over is dropped
+     */
+    private volatile boolean failed;
+
+    /**
+     * Create a new writer and open its file on the writer thread. Any file already at the path is replaced.
+     * @param file the file to write, whose directory is created if needed
+     */
+    public JournalWriter(Path file) {
+        this.file = file;
+        executor.execute(this::open);
+    }
+
+    /**
+     * Hand over bytes to be written. Never blocks.
+     * @param chunk the bytes, which must not be changed afterwards
+     */
+    public void write(byte[] chunk) {
+        if (!closed && !failed && chunk.length > 0) {
+            pending.incrementAndGet();
+            executor.execute(() -> writeChunk(chunk));
+        }
+    }
+
+    /**
+     * Close the file once everything handed over so far has been written. Never blocks.
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            executor.execute(this::closeFile);
+        }
+    }
+
+    /**
+     * Get the file being written
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Check whether the file could not be written
+     * @return true if writing failed
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Find the most recently started journal in a directory
+     * @param directory the directory
+     * @return the journal, or null if the directory has none
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Path findNewest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        Path newest = null;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path journal : stream) {
+                //Journals are named after the time they were started, so the newest sorts last
+                if (newest == null || journal.getFileName().toString().compareTo(newest.getFileName().toString()) > 0) {
+                    newest = journal;
+                }
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Open the file, deleting old journals in the same directory
+     */
+    private void open() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+                deleteOldJournals(directory);
+            }
+            out = new BufferedOutputStream(Files.newOutputStream(file));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Write a chunk, flushing if nothing else is waiting
+     * @param chunk the bytes
+     */
+    private void writeChunk(byte[] chunk) {
+        int left = pending.decrementAndGet();
+        if (failed) {
+            return;
+        }
+        try {
+            out.write(chunk);
+            if (left == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Close the file
+     */
+    private void closeFile() {
+        if (failed) {
+            return;
+        }
+        try {
+            out.close();
+            logger.info("Journal written to {}", file);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Stop writing after an error, closing the file if it was opened
+     * @param e the error
+     */
+    private void fail(IOException e) {
+        logger.error("Could not write journal {}: {}", file, e.getMessage());
+        failed = true;
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                //The file is already being given up on
+            }
+        }
+    }
+
+    /**
+     * Delete the oldest journals in a directory, leaving room for the new one within KEEP_JOURNALS
+     * @param directory the directory
+     * @throws IOException if the directory cannot be listed
+     */
+    private void deleteOldJournals(Path directory) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path journal : stream) {
+                if (!journal.equals(file.toAbsolutePath())) {
+                    journals.add(journal);
+                }
+            }
+        }
+        if (journals.size() < KEEP_JOURNALS) {
+            return;
+        }
+
+        //Journals are named after the time they were started, so the oldest sort first
+        journals.sort(Comparator.comparing(journal -> journal.getFileName().toString()));
+        for (Path journal : journals.subList(0, journals.size() - KEEP_JOURNALS + 1)) {
+            try {
+                Files.delete(journal);
+            } catch (IOException e) {
+                logger.warn("Could not delete old journal {}: {}", journal, e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package uk.ac.soton.comp1206.game.journal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A journal read back from its bytes, ready to be played by a ReplayEngine. Can also be run from the command line to
+ * check that journal files replay to the score and board they recorded.
+ */
+public class Replay {
+
+    /**
+     * The number of columns of the board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows of the board
+     */
+    private final int rows;
+
+    /**
+     * The seed of the piece generator
+     */
+    private final long seed;
+
+    /**
+     * The kind of piece generator, from PieceGenerator.getKind
+     */
+    private final String kind;
+
+    /**
+     * Every event in the journal, in order
+     */
+    private final List<JournalEvent> events;
+
+    /**
+     * Create a replay of a journal which has already been read
+     * @param cols the number of columns of the board
+     * @param rows the number of rows of the board
+     * @param seed the seed of the piece generator
+     * @param kind the kind of piece generator
+     * @param events every event, in order
+     */
+    public Replay(int cols, int rows, long seed, String kind, List<JournalEvent> events) {
+        this.cols = cols;
+        this.rows = rows;
+        this.seed = seed;
+        this.kind = kind;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Read a journal file
+     * @param file the file
+     * @return the replay
+     * @throws IOException if the file could not be read or is not a journal
+     */
+    public static Replay read(Path file) throws IOException {
+        return read(Files.readAllBytes(file));
+    }
+
+    /**
+     * Read a journal from its bytes. A journal which was cut off part way through an event, for example because the
+     * game was still running, is read up to the last whole event.
+     * @param bytes the journal
+     * @return the replay
+     * @throws IOException if the bytes are not a journal
+     */
+    public static Replay read(byte[] bytes) throws IOException {
+        Reader reader = new Reader(bytes);
+        if (bytes.length < 4 || reader.readInt() != GameJournal.MAGIC) {
+            throw new IOException("Not a journal");
+        }
+        int cols;
+        int rows;
+        long seed;
+        String kind;
+        try {
+            cols = (int) reader.readVarint();
+            rows = (int) reader.readVarint();
+            seed = reader.readLong();
+            int kindLength = (int) reader.readVarint();
+            kind = new String(reader.readBytes(kindLength), StandardCharsets.UTF_8);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Journal header is cut off");
+        }
+
+        List<JournalEvent> events = new ArrayList<>();
+        long time = 0;
+        try {
+            while (reader.hasMore()) {
+                int type = reader.readByte();
+                time += reader.readVarint();
+                events.add(switch (type) {
+                    case GameJournal.START -> new JournalEvent.Start(time);
+                    case GameJournal.PIECE -> {
+                        int piece = (int) reader.readVarint();
+                        yield new JournalEvent.Piece(time, piece / 4, piece % 4);
+                    }
+                    case GameJournal.ROTATE -> {
+                        int zigzag = (int) reader.readVarint();
+                        yield new JournalEvent.Rotate(time, (zigzag >>> 1) ^ -(zigzag & 1));
+                    }
+                    case GameJournal.SWAP -> new JournalEvent.Swap(time);
+                    case GameJournal.PLACE -> new JournalEvent.Place(time, (int) reader.readVarint(),
+                            (int) reader.readVarint());
+                    case GameJournal.TIMEOUT -> new JournalEvent.Timeout(time);
+                    case GameJournal.END -> new JournalEvent.End(time, (int) reader.readVarint(), reader.readLong());
+                    default -> throw new IOException("Unknown journal event " + type);
+                });
+            }
+        } catch (IndexOutOfBoundsException e) {
+            //The last event was not written completely
+        }
+        return new Replay(cols, rows, seed, kind, events);
+    }
+
+    /**
+     * Get the number of columns of the board
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows of the board
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the seed of the piece generator
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the kind of piece generator
+     * @return the kind, from PieceGenerator.getKind
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Get every event in the journal
+     * @return the events, in order
+     */
+    public List<JournalEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Play the whole journal as fast as possible on a board of its own
+     * @return the result
+     */
+    public ReplayResult run() {
+        return new ReplayEngine(this).runToEnd();
+    }
+
+    /**
+     * Check that every journal file given replays to the score and board it recorded
+     * @param args the journal files
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Replay <journal>...");
+            System.exit(1);
+            return;
+        }
+        boolean allVerified = true;
+        for (String arg : args) {
+            try {
+                Replay replay = read(Path.of(arg));
+                long start = System.nanoTime();
+                ReplayResult result = replay.run();
+                long micros = (System.nanoTime() - start) / 1000;
+                System.out.println(arg + ": " + result + " (" + replay.getEvents().size() + " events in " + micros
+                        + "us)");
+                allVerified &= result.verified();
+            } catch (IOException | RuntimeException e) {
+                System.out.println(arg + ": could not be replayed: " + e.getMessage());
+                allVerified = false;
+            }
+        }
+        if (!allVerified) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads numbers back in the format GameJournal writes them
+     */
+    private static class Reader {
+
+        /**
+         * The bytes being read
+         */
+        private final byte[] bytes;
+
+        /**
+         * The position of the next byte to read
+         */
+        private int position;
+
+        /**
+         * Create a reader of some bytes
+         * @param bytes the bytes
+         */
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Check whether there is anything left to read
+         * @return true if there are more bytes
+         */
+        boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        /**
+         * Read a single byte
+         * @return the byte, from 0 to 255
+         * @throws IndexOutOfBoundsException if there are no more bytes
+         */
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        /**
+         * Read a variable length integer
+         * @return the number
+         * @throws IndexOutOfBoundsException if the bytes run out
+         */
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Read a number written as 4 bytes
+         * @return the number
+         */
+        int readInt() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        /**
+         * Read a number written as 8 bytes
+         * @return the number
+         */
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        /**
+         * Read a run of bytes
+         * @param length the number of bytes
+         * @return the bytes
+         */
+        byte[] readBytes(int length) {
+            if (length < 0 || position + length > bytes.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            byte[] read = new byte[length];
+            System.arraycopy(bytes, position, read, 0, length);
+            position += length;
+            return read;
+        }
+    }
+
+}
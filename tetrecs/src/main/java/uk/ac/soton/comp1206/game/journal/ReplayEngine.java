@@ -0,0 +1,163 @@
+package uk.ac.soton.comp1206.game.journal;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceGenerator;
+
+import java.util.List;
+
+/**
+ * Plays the events of a journal through a GameEngine, one at a time or all at once.
+ *
+ * Pieces are taken from a piece generator made from the seed and kind in the journal, unless the journal recorded the
+ * piece itself, as a multiplayer game does for pieces sent by the server.
+ */
+public class ReplayEngine {
+
+    /**
+     * The journal being played
+     */
+    private final Replay replay;
+
+    /**
+     * The events of the journal
+     */
+    private final List<JournalEvent> events;
+
+    /**
+     * Generates every piece the journal did not record
+     */
+    private final PieceGenerator pieceGenerator;
+
+    /**
+     * Runs the rules of the game being replayed
+     */
+    private final GameEngine engine;
+
+    /**
+     * The index of the next event to play
+     */
+    private int index;
+
+    /**
+     * The end recorded in the journal, once it has been reached
+     */
+    private JournalEvent.End end;
+
+    /**
+     * Create a replay engine which plays on a board of its own
+     * @param replay the journal to play
+     */
+    public ReplayEngine(Replay replay) {
+        this(replay, new Board(replay.getCols(), replay.getRows()));
+    }
+
+    /**
+     * Create a replay engine which plays on the given board, for example the grid shown by a GameBoard
+     * @param replay the journal to play
+     * @param board an empty board of the size in the journal
+     * @throws IllegalArgumentException if the board is not the size in the journal
+     */
+    public ReplayEngine(Replay replay, Board board) {
+        if (board.getCols() != replay.getCols() || board.getRows() != replay.getRows()) {
+            throw new IllegalArgumentException("Journal is for a " + replay.getCols() + "x" + replay.getRows()
+                    + " board");
+        }
+        this.replay = replay;
+        this.events = replay.getEvents();
+        this.pieceGenerator = PieceGenerator.fromKind(replay.getKind(), replay.getSeed());
+        this.engine = new GameEngine(board, this::nextPiece);
+    }
+
+    /**
+     * Check whether there are events left to play
+     * @return true if there is another event
+     */
+    public boolean hasNext() {
+        return index < events.size();
+    }
+
+    /**
+     * Get the time of the next event
+     * @return milliseconds since the journal was started
+     */
+    public long getNextTime() {
+        return events.get(index).time();
+    }
+
+    /**
+     * Play the next event
+     * @return the event played
+     */
+    public JournalEvent step() {
+        JournalEvent event = events.get(index++);
+        if (event instanceof JournalEvent.Start) {
+            engine.start();
+        } else if (event instanceof JournalEvent.Rotate rotate) {
+            engine.rotateCurrentPiece(rotate.rotations());
+        } else if (event instanceof JournalEvent.Swap) {
+            engine.swapCurrentPiece();
+        } else if (event instanceof JournalEvent.Place place) {
+            engine.place(place.x(), place.y());
+        } else if (event instanceof JournalEvent.Timeout) {
+            engine.timeout();
+        } else if (event instanceof JournalEvent.End recorded) {
+            end = recorded;
+        }
+        //A Piece is taken by nextPiece when the engine asks for it, so one left here was never used
+        return event;
+    }
+
+    /**
+     * Play every event left, as fast as possible
+     * @return the result
+     */
+    public ReplayResult runToEnd() {
+        while (hasNext()) {
+            step();
+        }
+        return getResult();
+    }
+
+    /**
+     * Compare the state of the replay with the end recorded in the journal
+     * @return the result
+     */
+    public ReplayResult getResult() {
+        long hash = GameJournal.hash(engine.getBoard());
+        if (end == null) {
+            return new ReplayResult(false, 0, engine.getScore(), 0, hash);
+        }
+        return new ReplayResult(true, end.score(), engine.getScore(), end.gridHash(), hash);
+    }
+
+    /**
+     * Get the engine the journal is played through
+     * @return the engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Get the journal being played
+     * @return the replay
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Supply the engine with the piece recorded next in the journal, or the next generated piece if there is none
+     * @return the piece
+     */
+    private GamePiece nextPiece() {
+        if (index < events.size() && events.get(index) instanceof JournalEvent.Piece piece) {
+            index++;
+            return GamePiece.createPiece(piece.type(), piece.orientation());
+        }
+        return pieceGenerator.next();
+    }
+
+}
@@ -0,0 +1,33 @@
+package uk.ac.soton.comp1206.game.journal;
+
+/**
+ * The outcome of replaying a journal, compared against the end the journal recorded
+ * @param ended whether the journal recorded the game ending
+ * @param expectedScore the score the journal recorded, or 0 if it did not end
+ * @param actualScore the score the replay reached
+ * @param expectedHash the board hash the journal recorded, or 0 if it did not end
+ * @param actualHash the board hash the replay reached
+ */
+public record ReplayResult(boolean ended, int expectedScore, int actualScore, long expectedHash, long actualHash) {
+
+    /**
+     * Check whether the replay reached the same score and board as the game it recorded
+     * @return true if the journal ended and both match
+     */
+    public boolean verified() {
+        return ended && expectedScore == actualScore && expectedHash == actualHash;
+    }
+
+    @Override
+    public String toString() {
+        if (!ended) {
+            return "unfinished, score " + actualScore;
+        }
+        if (verified()) {
+            return "verified, score " + actualScore;
+        }
+        return "MISMATCH, recorded score " + expectedScore + " board " + Long.toHexString(expectedHash)
+                + ", replayed score " + actualScore + " board " + Long.toHexString(actualHash);
+    }
+
+}
@@ -1,26 +1,110 @@
 package uk.ac.soton.comp1206.multimedia;
 
+import javafx.scene.media.AudioClip;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
- * The Visual User Interface component representing a single block in the grid.
- * Extends Canvas and is responsible for drawing itself.
- * Displays an empty square (when the value is 0) or a coloured square depending on value.
- * The GameBlock value should be bound to a corresponding block in the Grid model.
+ * Plays the background music and sound effects for the game.
+ *
+ * Sound effects are loaded once into AudioClips which are shared by every Multimedia object, so playing a sound does
+ * not need to look up or decode the file again. The same sound triggered more than once within a single frame is only
+ * played once, and no more than MAX_VOICES sound effects are played at the same time, counting every playback of the
+ * same sound separately.
  */
 public class Multimedia {
 
+    private static final Logger logger = LogManager.getLogger(Multimedia.class);
+
     /**
-     * The media which is played
+     * The sound effects which are loaded when the game starts, and how long each one lasts in milliseconds. AudioClip
+     * does not say when a playback finishes, so the lengths are needed to count how many sounds are playing.
      */
-    private Media media;
+    private static final Map<String, Integer> SOUND_EFFECTS = Map.ofEntries(
+            Map.entry("/sounds/clear.wav", 3086), Map.entry("/sounds/explode.wav", 3367),
+            Map.entry("/sounds/fail.wav", 1689), Map.entry("/sounds/intro.mp3", 8411),
+            Map.entry("/sounds/level.wav", 1983), Map.entry("/sounds/lifegain.wav", 1133),
+            Map.entry("/sounds/lifelose.wav", 1347), Map.entry("/sounds/message.wav", 2379),
+            Map.entry("/sounds/place.wav", 1539), Map.entry("/sounds/pling.wav", 2567),
+            Map.entry("/sounds/rotate.wav", 2000), Map.entry("/sounds/transition.wav", 1116));
+
+    /**
+     * The most sound effects which can be playing at the same time
+     */
+    public static final int MAX_VOICES = 4;
+
+    /**
+     * Triggers of the same sound effect closer together than this are merged into one, in nanoseconds
+     */
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
     /**
-     * The MediaPlayer which is used to play sound effects
+     * How long a sound effect which is not in SOUND_EFFECTS is counted as playing, in milliseconds
      */
-    private MediaPlayer soundPlayer;
+    private static final int DEFAULT_LENGTH_MILLIS = 1000;
+
+    /**
+     * When each voice will finish the sound it is playing, from System.nanoTime(). A voice whose time has passed is
+     * free.
+     */
+    private static final long[] voicesPlayingUntil = new long[MAX_VOICES];
+
+    static {
+        //System.nanoTime() can be any value, so every voice starts out free as of now rather than as of 0
+        Arrays.fill(voicesPlayingUntil, System.nanoTime());
+    }
+
+    /**
+     * The loaded sound effects, by resource name
+     */
+    private static final Map<String, SoundEffect> soundEffects = new ConcurrentHashMap<>();
+
+    /**
+     * A loaded sound effect and when it was last played
+     */
+    private static class SoundEffect {
+
+        /**
+         * The decoded sound
+         */
+        private final AudioClip clip;
+
+        /**
+         * When this sound was last played, from System.nanoTime()
+         */
+        private long lastPlayed;
+
+        /**
+         * How long the sound lasts, in nanoseconds
+         */
+        private final long lengthNanos;
+
+        /**
+         * Create a new sound effect
+         * @param clip the decoded sound
+         * @param lengthMillis how long the sound lasts, in milliseconds
+         */
+        private SoundEffect(AudioClip clip, int lengthMillis) {
+            this.clip = clip;
+            this.lengthNanos = lengthMillis * 1_000_000L;
+
+            //Times are compared by difference, so a sound which has never played is treated as played long enough ago
+            this.lastPlayed = System.nanoTime() - FRAME_NANOS;
+        }
+    }
+
+    /**
+     * The media which is played
+     */
+    private Media media;
 
     /**
      * The MediaPlayer which is used to play background music
@@ -33,6 +117,16 @@ public class Multimedia {
     public Multimedia() {
     }
 
+    /**
+     * Load every sound effect in the game, so they are ready to play straight away
+     */
+    public static void preloadSoundEffects() {
+        logger.info("Loading sound effects");
+        for (String resource : SOUND_EFFECTS.keySet()) {
+            getSoundEffect(resource);
+        }
+    }
+
     /**
      * Plays background music
      * @param resource the file form which the media is created and played
@@ -51,9 +145,29 @@ public class Multimedia {
      * @param resource the file form which the media is created and played
      */
     public void playAudioFile(String resource) {
-        media = new Media(getClass().getResource(resource).toExternalForm());
-        soundPlayer = new MediaPlayer(media);
-        soundPlayer.play();
+        SoundEffect soundEffect = getSoundEffect(resource);
+        if (soundEffect == null) {
+            return;
+        }
+
+        synchronized (Multimedia.class) {
+            long now = System.nanoTime();
+
+            //The same sound triggered again within a frame is merged with the one already playing
+            if (now - soundEffect.lastPlayed < FRAME_NANOS) {
+                return;
+            }
+
+            //Play the sound on a free voice, or drop it if every voice is still playing
+            for (int voice = 0; voice < MAX_VOICES; voice++) {
+                if (voicesPlayingUntil[voice] - now <= 0) {
+                    voicesPlayingUntil[voice] = now + soundEffect.lengthNanos;
+                    soundEffect.lastPlayed = now;
+                    soundEffect.clip.play();
+                    return;
+                }
+            }
+        }
     }
     /**
      * Stops the background music
@@ -62,4 +176,24 @@ public class Multimedia {
         musicPlayer.stop();
     }
 
+    /**
+     * Get a sound effect, loading it if it has not been loaded yet
+     * @param resource the file of the sound effect
+     * @return the sound effect, or null if there is no such file
+     */
+    private static SoundEffect getSoundEffect(String resource) {
+        SoundEffect soundEffect = soundEffects.get(resource);
+        if (soundEffect != null) {
+            return soundEffect;
+        }
+
+        URL url = Multimedia.class.getResource(resource);
+        if (url == null) {
+            logger.error("No such sound effect: " + resource);
+            return null;
+        }
+        return soundEffects.computeIfAbsent(resource, key -> new SoundEffect(new AudioClip(url.toExternalForm()),
+                SOUND_EFFECTS.getOrDefault(resource, DEFAULT_LENGTH_MILLIS)));
+    }
+
 }
@@ -0,0 +1,263 @@
+package uk.ac.soton.comp1206.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.ChannelsChangedListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChannelDirectory keeps an up to date copy of the channels open on the server, by sending LIST requests and
+ * comparing every CHANNELS reply with the channels it already knows about. The listener is only told about the
+ * channels which were added or removed, and is not called at all when nothing changed.
+ *
+ * Requests start every MIN_INTERVAL milliseconds. Every reply which changes nothing doubles the interval up to
+ * MAX_INTERVAL, and any change drops it back to MIN_INTERVAL. While the directory is idle, for example because the
+ * window is not focused, requests are only sent every IDLE_INTERVAL milliseconds.
+ */
+public class ChannelDirectory {
+
+    private static final Logger logger = LogManager.getLogger(ChannelDirectory.class);
+
+    /**
+     * The shortest time between requests, in milliseconds
+     */
+    public static final long MIN_INTERVAL = 2500;
+
+    /**
+     * The longest time between requests while the list is not changing, in milliseconds
+     */
+    public static final long MAX_INTERVAL = 20000;
+
+    /**
+     * The time between requests while the directory is idle, in milliseconds
+     */
+    public static final long IDLE_INTERVAL = 60000;
+
+    /**
+     * The scheduler shared by every channel directory
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-directory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The communicator to send requests with
+     */
+    private final Communicator communicator;
+
+    /**
+     * The channels on the server, in the order they were first listed
+     */
+    private final Set<String> channels = new LinkedHashSet<>();
+
+    /**
+     * The executor on which the listener is called
+     */
+    private Executor listenerExecutor = Runnable::run;
+
+    /**
+     * The listener to call when the channels change
+     */
+    private ChannelsChangedListener listener;
+
+    /**
+     * The time to wait before the next request while active, in milliseconds
+     */
+    private long interval = MIN_INTERVAL;
+
+    /**
+     * Whether the player is looking at the channels
+     */
+    private boolean active = true;
+
+    /**
+     * Whether the directory has been started and not stopped
+     */
+    private boolean running;
+
+    /**
+     * The next request which is scheduled
+     */
+    private ScheduledFuture<?> pending;
+
+    /**
+     * The number of LIST requests sent
+     */
+    private long requestCount;
+
+    /**
+     * The number of replies which changed the channels
+     */
+    private long changeCount;
+
+    /**
+     * Create a new directory which listens for CHANNELS messages on a communicator. It does not send requests until it
+     * is started.
+     * @param communicator the communicator to send requests with
+     */
+    public ChannelDirectory(Communicator communicator) {
+        this.communicator = communicator;
+        communicator.addListener(Message.Channels.class, message -> update(message.channels()));
+    }
+
+    /**
+     * Set the listener to call with the channels which were added or removed
+     * @param listener the listener
+     */
+    public synchronized void setOnChannelsChanged(ChannelsChangedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the executor on which the listener is called, for example Platform::runLater
+     * @param listenerExecutor the executor
+     */
+    public synchronized void setListenerExecutor(Executor listenerExecutor) {
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    /**
+     * Start sending requests, beginning straight away
+     */
+    public synchronized void start() {
+        running = true;
+        refresh();
+    }
+
+    /**
+     * Stop sending requests
+     */
+    public synchronized void stop() {
+        running = false;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        logger.info("Channel directory sent {} requests, {} of which changed the channels", requestCount, changeCount);
+    }
+
+    /**
+     * Send a request straight away and go back to the shortest interval, for example after creating or leaving a
+     * channel
+     */
+    public synchronized void refresh() {
+        interval = MIN_INTERVAL;
+        schedule(0);
+    }
+
+    /**
+     * Set whether the player is looking at the channels. Becoming active sends a request straight away.
+     * @param active false to only send requests every IDLE_INTERVAL milliseconds
+     */
+    public synchronized void setActive(boolean active) {
+        if (this.active == active) {
+            return;
+        }
+        this.active = active;
+        if (active) {
+            refresh();
+        } else {
+            schedule(IDLE_INTERVAL);
+        }
+    }
+
+    /**
+     * Get the channels currently known about
+     * @return a copy of the channels, in the order they were first listed
+     */
+    public synchronized List<String> getChannels() {
+        return new ArrayList<>(channels);
+    }
+
+    /**
+     * Get the number of LIST requests sent
+     * @return the number of requests
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Compare a CHANNELS reply with the channels already known about, and tell the listener about any difference
+     * @param listed the channels in the reply
+     */
+    private void update(List<String> listed) {
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        ChannelsChangedListener currentListener;
+        Executor executor;
+
+        synchronized (this) {
+            Set<String> latest = new LinkedHashSet<>(listed);
+            for (String channel : channels) {
+                if (!latest.contains(channel)) {
+                    removed.add(channel);
+                }
+            }
+            for (String channel : latest) {
+                if (!channels.contains(channel)) {
+                    added.add(channel);
+                }
+            }
+            if (added.isEmpty() && removed.isEmpty()) {
+                //Nothing changed, so the list is checked less often
+                interval = Math.min(interval * 2, MAX_INTERVAL);
+                return;
+            }
+
+            channels.removeAll(removed);
+            channels.addAll(added);
+            changeCount++;
+            interval = MIN_INTERVAL;
+            if (running && active) {
+                schedule(interval);
+            }
+            currentListener = listener;
+            executor = listenerExecutor;
+        }
+
+        if (currentListener != null) {
+            executor.execute(() -> currentListener.channelsChanged(added, removed));
+        }
+    }
+
+    /**
+     * Replace the next scheduled request
+     * @param delay the number of milliseconds until the request
+     */
+    private synchronized void schedule(long delay) {
+        if (!running) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = scheduler.schedule(this::request, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send a request and schedule the next one
+     */
+    private void request() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            requestCount++;
+            schedule(active ? interval : IDLE_INTERVAL);
+        }
+        communicator.send("LIST");
+    }
+
+}
@@ -5,13 +5,26 @@ import javafx.scene.control.Alert;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.MessageListener;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Uses web sockets to talk to a web socket server and relays communication to attached listeners
  *
+ * Outgoing messages are queued and written together on the next flush tick, with a single flush of the socket for the
+ * whole batch. A message sent with sendLatest replaces any message with the same key which is still waiting in the
+ * queue, so only the latest board or score goes out on each tick.
+ *
  * YOU DO NOT NEED TO WORRY ABOUT THIS CLASS! Leave it be :-)
  */
 public class Communicator {
@@ -21,10 +34,102 @@ public class Communicator {
     /**
      * Attached communication listeners listening to messages on this Communicator. Each will be sent any messages.
      */
-    private final List<CommunicationsListener> handlers = new ArrayList<>();
+    private final List<CommunicationsListener> handlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Attached message listeners, by the type of message they listen to. Each will only be sent messages of that type.
+     * Listeners are added and cleared on the JavaFX thread while messages are received on the websocket thread, so
+     * both the map and the lists are safe to change while they are read.
+     */
+    private final Map<Class<? extends Message>, List<MessageListener<?>>> messageHandlers = new ConcurrentHashMap<>();
 
     private WebSocket ws = null;
 
+    /**
+     * How long a message can wait in the queue before it is sent, in milliseconds
+     */
+    public static final long FLUSH_INTERVAL = 20;
+
+    /**
+     * The scheduler shared by every communicator which runs the flush ticks
+     */
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "communicator-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A message waiting to be sent
+     */
+    private static class OutgoingMessage {
+
+        /**
+         * The key of the message, or null if it can never be replaced
+         */
+        private final String key;
+
+        /**
+         * The text of the message, or null if it has been replaced by a later message with the same key
+         */
+        private String text;
+
+        /**
+         * Create a new outgoing message
+         * @param key the key of the message, or null
+         * @param text the text of the message
+         */
+        private OutgoingMessage(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The messages waiting to be sent, in the order they were sent
+     */
+    private final ArrayDeque<OutgoingMessage> queue = new ArrayDeque<>();
+
+    /**
+     * The latest message waiting in the queue for each key
+     */
+    private final Map<String, OutgoingMessage> latest = new HashMap<>();
+
+    /**
+     * The number of messages waiting in the queue which have not been replaced
+     */
+    private int queueDepth;
+
+    /**
+     * The most messages which have been waiting in the queue at once
+     */
+    private int peakQueueDepth;
+
+    /**
+     * The number of messages which were replaced before they were sent
+     */
+    private long coalescedCount;
+
+    /**
+     * The number of messages which have been sent
+     */
+    private long sentCount;
+
+    /**
+     * The number of times the queue has been flushed to the socket
+     */
+    private long flushCount;
+
+    /**
+     * Whether a flush tick is already scheduled
+     */
+    private boolean flushScheduled;
+
+    /**
+     * Held while a batch is written to the socket, so two flushes can never interleave their messages
+     */
+    private final Object sendLock = new Object();
+
     /**
      * Create a new communicator to the given web socket server
      *
@@ -37,6 +142,7 @@ public class Communicator {
 
             //Connect to the server
             ws = socketFactory.createSocket(server);
+            ws.setAutoFlush(false);
             ws.connect();
             logger.info("Connected to " + server);
 
@@ -82,14 +188,96 @@ public class Communicator {
         }
     }
 
-    /** Send a message to the server
+    /** Send a message to the server. The message is queued and sent on the next flush tick, after every message
+     * which was sent before it.
      *
      * @param message Message to send
      */
     public void send(String message) {
-        logger.info("Sending message: " + message);
+        enqueue(null, message);
+    }
 
-        ws.sendText(message);
+    /** Send a message to the server which replaces any message with the same key that has not been sent yet. Use this
+     * for messages where only the latest one matters, such as the state of the board.
+     *
+     * @param key the key of the message, for example the command
+     * @param message Message to send
+     */
+    public void sendLatest(String key, String message) {
+        enqueue(key, message);
+    }
+
+    /**
+     * Send every queued message to the server straight away
+     */
+    public void flush() {
+        synchronized (sendLock) {
+            List<String> batch;
+            synchronized (this) {
+                flushScheduled = false;
+                if (queue.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(queueDepth);
+                for (OutgoingMessage outgoing : queue) {
+                    if (outgoing.text != null) {
+                        batch.add(outgoing.text);
+                    }
+                }
+                queue.clear();
+                latest.clear();
+                queueDepth = 0;
+                sentCount += batch.size();
+                flushCount++;
+            }
+
+            logger.debug("Sending {} messages", batch.size());
+            for (String message : batch) {
+                logger.debug("Sending message: " + message);
+                ws.sendText(message);
+            }
+            ws.flush();
+        }
+    }
+
+    /**
+     * Get the number of messages waiting to be sent
+     * @return queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Get the most messages which have been waiting to be sent at once
+     * @return peak queue depth
+     */
+    public synchronized int getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    /**
+     * Get the number of messages which were replaced by a later message before they were sent
+     * @return number of coalesced messages
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Get the number of messages which have been sent
+     * @return number of sent messages
+     */
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Get the number of times the queue has been flushed to the server
+     * @return number of flushes
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
     }
 
     /**
@@ -100,11 +288,49 @@ public class Communicator {
         this.handlers.add(listener);
     }
 
+    /**
+     * Add a new listener to receive one type of decoded message from the server
+     * @param type the type of message to listen for
+     * @param listener the listener to add
+     * @param <T> the type of message
+     */
+    public <T extends Message> void addListener(Class<T> type, MessageListener<T> listener) {
+        this.messageHandlers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
     /**
      * Clear all current listeners
      */
     public void clearListeners() {
         this.handlers.clear();
+        this.messageHandlers.clear();
+    }
+
+    /**
+     * Add a message to the queue and make sure a flush tick is scheduled
+     * @param key the key of the message, or null if it can never be replaced
+     * @param message the message to send
+     */
+    private synchronized void enqueue(String key, String message) {
+        OutgoingMessage outgoing = new OutgoingMessage(key, message);
+
+        if (key != null) {
+            //A waiting message with the same key is dropped, and the new one goes to the back of the queue
+            OutgoingMessage replaced = latest.put(key, outgoing);
+            if (replaced != null) {
+                replaced.text = null;
+                queueDepth--;
+                coalescedCount++;
+            }
+        }
+        queue.add(outgoing);
+        queueDepth++;
+        peakQueueDepth = Math.max(peakQueueDepth, queueDepth);
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            flusher.schedule(this::flush, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+        }
     }
 
     /** Receive a message from the server. Relay to any attached listeners
@@ -118,6 +344,34 @@ public class Communicator {
         for(CommunicationsListener handler : handlers) {
             handler.receiveCommunication(message);
         }
+
+        //Only decode the message if something is listening for its type
+        List<MessageListener<?>> listeners = messageHandlers.get(MessageDecoder.typeOf(message));
+        if (listeners == null || listeners.isEmpty()) {
+            return;
+        }
+
+        Message decoded;
+        try {
+            decoded = MessageDecoder.decode(message);
+        } catch (NumberFormatException e) {
+            logger.error("Unable to decode message: " + message);
+            return;
+        }
+        for (MessageListener<?> listener : listeners) {
+            dispatch(listener, decoded);
+        }
+    }
+
+    /**
+     * Pass a decoded message to a listener which subscribed to its type
+     * @param listener the listener
+     * @param message the decoded message
+     * @param <T> the type of message
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Message> void dispatch(MessageListener<T> listener, Message message) {
+        listener.receiveMessage((T) message);
     }
 
 }
@@ -0,0 +1,116 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.List;
+
+/**
+ * A message received from the server, decoded into a record for its command.
+ *
+ * Messages are decoded once by the MessageDecoder when they arrive, and only passed to the listeners which subscribed
+ * to their type.
+ */
+public sealed interface Message {
+
+    /**
+     * A BOARD message, holding the board of another player
+     * @param name the name of the player
+     * @param state the state of their board, as sent by Grid.getGridState()
+     */
+    record Board(String name, String state) implements Message {}
+
+    /**
+     * A SCORES message, holding the score and lives of every player in the game
+     * @param players the players, in the order the server sent them
+     */
+    record Scores(List<PlayerScore> players) implements Message {}
+
+    /**
+     * The score and lives of a single player in a SCORES message
+     * @param name the name of the player
+     * @param score their score
+     * @param lives their lives left, or -1 if they are dead
+     */
+    record PlayerScore(String name, int score, int lives) {
+
+        /**
+         * Check whether the player has died
+         * @return true if the player is dead
+         */
+        public boolean isDead() {
+            return lives < 0;
+        }
+    }
+
+    /**
+     * A PIECE message, holding the next piece to play
+     * @param type the number of the piece
+     */
+    record Piece(int type) implements Message {}
+
+    /**
+     * A MSG message, holding a chat message
+     * @param sender the name of the player who sent it
+     * @param text the text of the chat message
+     */
+    record Msg(String sender, String text) implements Message {}
+
+    /**
+     * A USERS message, holding the users in the current channel
+     * @param users the names of the users
+     */
+    record Users(List<String> users) implements Message {}
+
+    /**
+     * A CHANNELS message, holding the channels which can be joined
+     * @param channels the names of the channels
+     */
+    record Channels(List<String> channels) implements Message {}
+
+    /**
+     * A HISCORES message, holding the online high scores
+     * @param scores the scores, in the order the server sent them
+     */
+    record HiScores(List<NamedScore> scores) implements Message {}
+
+    /**
+     * A single score in a HISCORES message
+     * @param name the name of the player
+     * @param score their score
+     */
+    record NamedScore(String name, int score) {}
+
+    /**
+     * A HOST message, sent when this player has created a channel
+     */
+    record Host() implements Message {}
+
+    /**
+     * A JOIN message, sent when this player has joined a channel
+     * @param channel the name of the channel
+     */
+    record Join(String channel) implements Message {}
+
+    /**
+     * A START message, sent when the game in the channel starts
+     */
+    record Start() implements Message {}
+
+    /**
+     * A NICK message, holding the name of this player
+     * @param name the name of this player
+     */
+    record Nick(String name) implements Message {}
+
+    /**
+     * An ERROR message
+     * @param text the error
+     */
+    record Error(String text) implements Message {}
+
+    /**
+     * Any other message
+     * @param command the command of the message
+     * @param body everything after the command
+     */
+    record Other(String command, String body) implements Message {}
+
+}
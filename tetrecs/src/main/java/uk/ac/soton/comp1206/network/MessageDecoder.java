@@ -0,0 +1,157 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the raw text received from the server into Messages.
+ *
+ * Each frame is read once from start to end by looking for the separators, without splitting it into arrays of
+ * strings.
+ */
+public class MessageDecoder {
+
+    /**
+     * Should not be created, only used for its static methods
+     */
+    private MessageDecoder() {
+    }
+
+    /**
+     * Get the type of message a frame will decode to, without decoding the rest of it
+     * @param frame the text received from the server
+     * @return the type of the message
+     */
+    public static Class<? extends Message> typeOf(String frame) {
+        return switch (command(frame)) {
+            case "BOARD" -> Message.Board.class;
+            case "SCORES" -> Message.Scores.class;
+            case "PIECE" -> Message.Piece.class;
+            case "MSG" -> Message.Msg.class;
+            case "USERS" -> Message.Users.class;
+            case "CHANNELS" -> Message.Channels.class;
+            case "HISCORES" -> Message.HiScores.class;
+            case "HOST" -> Message.Host.class;
+            case "JOIN" -> Message.Join.class;
+            case "START" -> Message.Start.class;
+            case "NICK" -> Message.Nick.class;
+            case "ERROR" -> Message.Error.class;
+            default -> Message.Other.class;
+        };
+    }
+
+    /**
+     * Decode a frame received from the server
+     * @param frame the text received from the server
+     * @return the decoded message
+     * @throws NumberFormatException if a number in the message is not valid
+     */
+    public static Message decode(String frame) {
+        String command = command(frame);
+        String body = body(frame, command);
+
+        return switch (command) {
+            case "BOARD" -> {
+                int colon = body.indexOf(':');
+                yield new Message.Board(body.substring(0, Math.max(colon, 0)).trim(), body.substring(colon + 1).trim());
+            }
+            case "SCORES" -> decodeScores(body);
+            case "PIECE" -> new Message.Piece(Integer.parseInt(body.trim()));
+            case "MSG" -> {
+                //Only the first colon separates the sender, the text can have colons of its own
+                int colon = body.indexOf(':');
+                yield new Message.Msg(body.substring(0, Math.max(colon, 0)), body.substring(colon + 1));
+            }
+            case "USERS" -> new Message.Users(lines(body));
+            case "CHANNELS" -> new Message.Channels(lines(body));
+            case "HISCORES" -> decodeHiScores(body);
+            case "HOST" -> new Message.Host();
+            case "JOIN" -> new Message.Join(body);
+            case "START" -> new Message.Start();
+            case "NICK" -> new Message.Nick(body);
+            case "ERROR" -> new Message.Error(body);
+            default -> new Message.Other(command, body);
+        };
+    }
+
+    /**
+     * Get the command at the start of a frame
+     * @param frame the text received from the server
+     * @return the command
+     */
+    private static String command(String frame) {
+        int space = frame.indexOf(' ');
+        return space < 0 ? frame : frame.substring(0, space);
+    }
+
+    /**
+     * Get everything in a frame after the command
+     * @param frame the text received from the server
+     * @param command the command at the start of the frame
+     * @return the body, which is empty if there is none
+     */
+    private static String body(String frame, String command) {
+        return command.length() >= frame.length() ? "" : frame.substring(command.length() + 1);
+    }
+
+    /**
+     * Get every line of a body which is not empty
+     * @param body the body of a message
+     * @return the lines
+     */
+    private static List<String> lines(String body) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        while (start < body.length()) {
+            int end = body.indexOf('\n', start);
+            if (end < 0) {
+                end = body.length();
+            }
+            if (end > start) {
+                lines.add(body.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Decode the body of a SCORES message, where each line is name:score:lives and lives is DEAD for a dead player
+     * @param body the body of the message
+     * @return the decoded message
+     */
+    private static Message.Scores decodeScores(String body) {
+        List<Message.PlayerScore> players = new ArrayList<>();
+        for (String line : lines(body)) {
+            int first = line.indexOf(':');
+            int second = line.indexOf(':', first + 1);
+            if (first < 0 || second < 0) {
+                continue;
+            }
+            String lives = line.substring(second + 1).trim();
+            players.add(new Message.PlayerScore(line.substring(0, first).trim(),
+                    Integer.parseInt(line.substring(first + 1, second).trim()),
+                    lives.equals("DEAD") ? -1 : Integer.parseInt(lives)));
+        }
+        return new Message.Scores(players);
+    }
+
+    /**
+     * Decode the body of a HISCORES message, where each line is name:score
+     * @param body the body of the message
+     * @return the decoded message
+     */
+    private static Message.HiScores decodeHiScores(String body) {
+        List<Message.NamedScore> scores = new ArrayList<>();
+        for (String line : lines(body)) {
+            int colon = line.lastIndexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            scores.add(new Message.NamedScore(line.substring(0, colon).trim(),
+                    Integer.parseInt(line.substring(colon + 1).trim())));
+        }
+        return new Message.HiScores(scores);
+    }
+
+}
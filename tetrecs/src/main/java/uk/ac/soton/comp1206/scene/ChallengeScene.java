@@ -12,19 +12,16 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBoard;
 import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.event.*;
+import uk.ac.soton.comp1206.game.BlockCoordinateSet;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Placement;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
-import java.io.*;
-import java.util.Set;
-import java.util.Timer;
-
 /**
  * The Single Player challenge scene. Holds the UI for the single player challenge mode in the game.
  */
@@ -67,10 +64,6 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
      * The pane used for the time bar
      */
     protected StackPane timeBarPane;
-    /**
-     * The timer for the current game
-     */
-    protected Timer timer;
     /**
      * The text which displays the current score
      */
@@ -86,13 +79,46 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
 
 
+    /**
+     * The number of columns and rows of the board in a normal challenge
+     */
+    public static final int DEFAULT_SIZE = 5;
+
+    /**
+     * The largest board drawn as separate blocks, larger boards are drawn onto a single canvas
+     */
+    public static final int MAX_BLOCKS_SIZE = 10;
+
+    /**
+     * The number of columns and rows of the board
+     */
+    protected final int boardSize;
+
+    /**
+     * Whether this is a marathon game
+     */
+    protected final boolean marathon;
+
     /**
      * Create a new Single Player challenge scene
      * @param gameWindow the Game Window
      */
     public ChallengeScene(GameWindow gameWindow) {
+        this(gameWindow, DEFAULT_SIZE, false);
+    }
+
+    /**
+     * Create a new Single Player challenge scene with a board of the given size, such as a larger board for marathon
+     * mode
+     * @param gameWindow the Game Window
+     * @param boardSize the number of columns and rows of the board
+     * @param marathon whether this is a marathon game, which keeps its own high scores
+     */
+    public ChallengeScene(GameWindow gameWindow, int boardSize, boolean marathon) {
         super(gameWindow);
-        logger.info("Creating Challenge Scene");
+        this.boardSize = boardSize;
+        this.marathon = marathon;
+        logger.info("Creating Challenge Scene with a {}x{} board", boardSize, boardSize);
     }
 
     /**
@@ -113,7 +139,7 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
 
         //Add high score text to the screen
-        highScore = getHighScore();
+        highScore = gameWindow.getScoreStore(game).getHighScore();
         highScoreText = new Text("Highscore: " + highScore);
         highScoreText.getStyleClass().add("level");
 
@@ -128,8 +154,9 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
         var mainPane = new BorderPane();
         challengePane.getChildren().add(mainPane);
 
-        //Create a new game board
-        gameBoard = new GameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2);
+        //Create a new game board, drawing large boards onto a canvas as a node for every block would be too slow
+        var renderMode = boardSize > MAX_BLOCKS_SIZE ? GameBoard.RenderMode.CANVAS : GameBoard.RenderMode.BLOCKS;
+        gameBoard = new GameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2,renderMode);
         mainPane.setCenter(gameBoard);
 
 
@@ -224,10 +251,11 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
     /**
      * Handle when a block is clicked
-     * @param gameBlock the Game Block that was clocked
+     * @param x the column of the block that was clicked
+     * @param y the row of the block that was clicked
      */
-    protected void blockClicked(GameBlock gameBlock) {
-        game.blockClicked(gameBlock);
+    protected void blockClicked(int x, int y) {
+        game.blockClicked(x,y);
     }
 
 
@@ -237,11 +265,15 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
     public void setupGame() {
         logger.info("Starting a new challenge");
 
-        game = new Game(5, 5);
+        game = new Game(boardSize, boardSize);
+        game.setMarathon(marathon);
         game.setNextPieceListener(this);
         game.setAimChangedListener(this);
         game.setLineClearedListener(this);
         game.setGameLoopListener(this);
+        //Timeouts are delivered on the JavaFX thread, so the game and the scene are only ever changed from one thread
+        game.setTimeoutExecutor(Platform::runLater);
+        game.setJournalDirectory(Game.JOURNAL_DIRECTORY);
 
     }
 
@@ -256,9 +288,7 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
         this.getScene().setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.ESCAPE) {
                 game.cancelTimer();
-                if (timer!=null) {
-                    timer.cancel();
-                }
+                game.closeJournal();
                 returnToMenu();
             }
 
@@ -301,13 +331,19 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
             }
 
             //Handles keys pressed to swap the current and next piece
+            if (event.getCode() == KeyCode.H) {
+                showHint();
+            }
+
             if (event.getCode() == KeyCode.SPACE) {
+                gameBoard.clearHint();
                 game.swapCurrentPiece();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
                 nextPieceboard.displayPiece(game.getNextPiece());
                 logger.info("swapped");
             }
             if (event.getCode() == KeyCode.R) {
+                gameBoard.clearHint();
                 game.swapCurrentPiece();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
                 nextPieceboard.displayPiece(game.getNextPiece());
@@ -317,27 +353,33 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
             //Handles keys pressed to rotate the current piece to the left and right
             if (event.getCode() == KeyCode.Q) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceLeft();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
             if (event.getCode() == KeyCode.E) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceRight();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
             if (event.getCode() == KeyCode.Z) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceLeft();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
             if (event.getCode() == KeyCode.C) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceRight();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
 
             if (event.getCode() == KeyCode.OPEN_BRACKET) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceLeft();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
             if (event.getCode() == KeyCode.CLOSE_BRACKET) {
+                gameBoard.clearHint();
                 game.rotateCurrentPieceRight();
                 currentPieceboard.displayPiece(game.getCurrentPiece());
             }
@@ -361,9 +403,22 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
      * @param nextPiece the new next piece
      */
     public void nextPiece(GamePiece currentPiece,GamePiece nextPiece) {
+        gameBoard.clearHint();
         updatePieceBoards(currentPiece,nextPiece);
     }
 
+    /**
+     * Shows the best place to play the current piece on the game board
+     */
+    protected void showHint() {
+        Placement hint = game.getHint();
+        if (hint == null) {
+            return;
+        }
+        logger.info("Hint: {},{} after {} rotations", hint.x(), hint.y(), hint.rotation());
+        gameBoard.showHint(game.getCurrentPiece().rotate(hint.rotation()), hint.x(), hint.y());
+    }
+
     /**
      * Updates the piece boards with the new current piece and next piece
      * @param currentPiece the new current piece
@@ -382,6 +437,7 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
      */
     public void rotateClicked(String message, Boolean rotateRight) {
         logger.info(message + " clicked and piece has been rotated!");
+        gameBoard.clearHint();
         if (rotateRight) {
             game.rotateCurrentPieceRight();
         } else {
@@ -399,11 +455,7 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
     @Override
     public void aimChanged(int[] previousAim, int[] currentAim) {
 
-        gameBoard.getBlock(previousAim[0],previousAim[1]).removeHover();
-        gameBoard.getBlock(currentAim[0],currentAim[1]).setHover();
-
-        gameBoard.setCurrentKeyboardHoverBlock(gameBoard.getBlock(currentAim[0],currentAim[1]));
-        gameBoard.removeMouseHover();
+        gameBoard.moveAim(currentAim[0],currentAim[1]);
 
     }
 
@@ -412,7 +464,7 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
      * @param  gameBlockcoordinates the set of game blocks which are to be cleared
      */
     @Override
-    public void lineCleared(Set<String> gameBlockcoordinates) {
+    public void lineCleared(BlockCoordinateSet gameBlockcoordinates) {
         gameBoard.playFadeOutAnimation(gameBlockcoordinates);
         if (game.getScore().getValue() > highScore) {
             highScoreText.textProperty().bind(game.getScore().asString("Highscore: %d"));
@@ -421,17 +473,14 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
     /**
      * The game loop for the game
-     * @param timer the timer of the game
-     * @param runningOnDifferentThread used to check if the timer is running on a different thread
+     * @param timedOut used to check if the loop repeated because the player ran out of time
      * @param endGame used to check whether to end the game or not
      */
     @Override
-    public void gameLoop(Timer timer, boolean runningOnDifferentThread,boolean endGame) {
-        this.timer = timer;
+    public void gameLoop(boolean timedOut,boolean endGame) {
 
         if (!endGame) {
-            game.getTimerDelay();
-            setTimerBar(runningOnDifferentThread);
+            setTimerBar();
         } else {
 
             logger.info("GAME ENDED");
@@ -446,12 +495,11 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
     /**
      * Sets the timer bar at the bottom of the screen
-     * @param runOnDifferentThread used to check which thread the current time bar is running on
      */
-    public void setTimerBar(Boolean runOnDifferentThread) {
+    public void setTimerBar() {
 
         stopAnimations();
-        removeTimeBar(runOnDifferentThread);
+        removeTimeBar();
 
 
         double initialWidth = gameWindow.getWidth(); // Initial width of the timer bar
@@ -487,11 +535,8 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
         widthTransition.play();
 
 
-        Platform.runLater(() -> {
-
-            timeBarPane.getChildren().add(timerBar);
-            timeBarPane.setPrefSize(gameWindow.getWidth(),10);
-        });
+        timeBarPane.getChildren().add(timerBar);
+        timeBarPane.setPrefSize(gameWindow.getWidth(),10);
 
     }
 
@@ -509,47 +554,11 @@ public class ChallengeScene extends BaseScene implements NextPieceListener, Rota
 
     /**
      * Removes the time bar from the screen
-     * @param runOnDifferentThread is used to check which thread the time bar is running on
-     */
-    private void removeTimeBar(boolean runOnDifferentThread) {
-        if (timerBar != null && timeBarPane.getChildren().contains(timerBar)) {
-            if (runOnDifferentThread) {
-                Platform.runLater(() -> {
-                    timeBarPane.getChildren().remove(timerBar);
-                });
-            } else {
-                timeBarPane.getChildren().remove(timerBar);
-            }
-
-        }
-    }
-
-    /**
-     * Gets the current high score saved in scores.txt to display
-     * @return high score
      */
-    private int getHighScore() {
-        String fileName = "Scores.txt";
-
-        int highScore = 0;
-
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                // Split the line by ":" to separate key and value
-                String[] nameAndScore = line.split(":");
-
-                int score = Integer.parseInt(nameAndScore[1].trim());
-                //remove trailing spaces
-
-                if (score > highScore) {
-                    highScore = score;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void removeTimeBar() {
+        if (timerBar != null) {
+            timeBarPane.getChildren().remove(timerBar);
         }
-        return highScore;
     }
 
 }
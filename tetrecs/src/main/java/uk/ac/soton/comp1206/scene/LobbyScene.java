@@ -1,20 +1,25 @@
 package uk.ac.soton.comp1206.scene;
 
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
-import uk.ac.soton.comp1206.event.CommunicationsListener;
 import uk.ac.soton.comp1206.multimedia.Multimedia;
+import uk.ac.soton.comp1206.network.ChannelDirectory;
+import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.ui.ChatLog;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -23,17 +28,26 @@ import java.util.TimerTask;
 public class LobbyScene extends BaseScene{
 
     /**
-     * The Timer used to request channels
+     * Keeps the list of channels up to date
      */
-    private Timer timer;
+    private ChannelDirectory channelDirectory;
     /**
-     * An array list of the current channels
+     * The text shown for each channel, by channel name
      */
-    private ArrayList<String> channels;
+    private final Map<String, Text> channelTexts = new HashMap<>();
     /**
-     * The chat area displayed to view messages
+     * Tells the channel directory whether the window is focused
      */
-    private TextArea chatArea;
+    private final ChangeListener<Boolean> focusListener = (observable, oldValue, focused) ->
+            channelDirectory.setActive(focused);
+    /**
+     * The messages in the current channel
+     */
+    private final ChatLog chatLog = new ChatLog();
+    /**
+     * The chat area displayed to view messages, which only creates cells for the messages on screen
+     */
+    private ListView<String> chatArea;
     /**
      * The input field for sending messages
      */
@@ -47,11 +61,6 @@ public class LobbyScene extends BaseScene{
      */
     private String currentChannelName;
 
-    /**
-     * The communications listener used to receive messages from the server
-     */
-    private CommunicationsListener communicationsListener;
-
     /**
      * The Vbox where the channels are displayed on
      */
@@ -101,6 +110,9 @@ public class LobbyScene extends BaseScene{
                 returnToMenu();
             }
         });
+
+        //The channels are checked less often while the window is in the background
+        this.getScene().getWindow().focusedProperty().addListener(focusListener);
     }
 
     /**
@@ -109,7 +121,7 @@ public class LobbyScene extends BaseScene{
     public void returnToMenu() {
         gameWindow.getCommunicator().send("PART");
         multimedia.stopMusic();
-        timer.cancel();
+        stopChannelDirectory();
         gameWindow.cleanup();
         gameWindow.startMenu();
     }
@@ -175,9 +187,16 @@ public class LobbyScene extends BaseScene{
         AnchorPane.setTopAnchor(channelsInfoPane,10.0);
         AnchorPane.setLeftAnchor(channelsInfoPane,10.0);
 
+        //Keeps the newest message in view
+        chatLog.addListener((ListChangeListener<String>) change -> {
+            if (chatArea != null && !chatLog.isEmpty()) {
+                chatArea.scrollTo(chatLog.size() - 1);
+            }
+        });
+
         isHost = false;
         setUpCommunicationsListener();
-        repeatChanelRequest();
+        channelDirectory.start();
 
 
         multimedia = new Multimedia();
@@ -223,9 +242,10 @@ public class LobbyScene extends BaseScene{
             AnchorPane.setLeftAnchor(channelName,250.0);
         }
 
-        //Creates a new text area for the chat
-        chatArea = new TextArea();
-        chatArea.setEditable(false);
+        //Creates a new list for the chat, starting with no messages from any previous channel
+        chatLog.clear();
+        chatArea = new ListView<>(chatLog);
+        chatArea.setFocusTraversable(false);
         chatArea.getStyleClass().add("customTextArea");
 
 
@@ -233,7 +253,7 @@ public class LobbyScene extends BaseScene{
         chatVBox.setPrefSize(500,600);
 
 
-        chatArea.appendText("Type /NICK nickname to change your name\n");
+        chatLog.post("Type /NICK nickname to change your name");
         chatArea.getStyleClass().add("TextField");
         chatArea.setPrefHeight(400);
 
@@ -295,7 +315,7 @@ public class LobbyScene extends BaseScene{
      * Starts the game by loading the multiplayer scene
      */
     private void startGame() {
-        timer.cancel();
+        stopChannelDirectory();
         multimedia.stopMusic();
         gameWindow.loadMultiplayerScene(currentPlayerName,usersWhoStartedGame);
     }
@@ -348,38 +368,37 @@ public class LobbyScene extends BaseScene{
     }
 
     /**
-     * Processes the incoming messages and adds to the chat area
-     * @param string the message received
+     * Processes the incoming messages and adds to the chat area. Called on the communicator's thread, so the message
+     * is posted to the chat log to be shown on the next batch.
+     * @param message the message received
      */
-    private void processIncomingMessages(String string) {
-        string = string.substring(4);
-        String sender = string.split(":")[0];
-        String message = string.split(":")[1];
-        chatArea.appendText(sender + ": " + message + "\n");
+    private void processIncomingMessages(Message.Msg message) {
+        chatLog.post(message.sender() + ": " + message.text());
     }
 
     /**
-     * Updates the display of the current available channels
+     * Updates the display of the available channels, adding and removing only the channels which changed
+     * @param added the channels which have appeared
+     * @param removed the channels which have gone
      */
-    private void updateChannelDisplay() {
-
-        var channelsBox = new VBox();
-        //First removes all channels currently displayed
-        channelsVBox.getChildren().remove(0, channelsVBox.getChildren().size());
-        channelsVBox.getChildren().add(channelsBox);
-
-        //Then loops through the list of channels and adds the channels to the display
-        if (channels!=null) {
-            for (String chanelName:channels) {
-                Text text = new Text(chanelName);
-                text.getStyleClass().add("menuItem");
-                text.setOnMouseClicked(event -> {
-                    joinChanel(chanelName);
+    private void updateChannelDisplay(List<String> added, List<String> removed) {
 
-                });
-                channelsBox.getChildren().add(text);
+        for (String chanelName : removed) {
+            Text text = channelTexts.remove(chanelName);
+            if (text != null) {
+                channelsVBox.getChildren().remove(text);
             }
+        }
+
+        for (String chanelName : added) {
+            Text text = new Text(chanelName);
+            text.getStyleClass().add("menuItem");
+            text.setOnMouseClicked(event -> {
+                joinChanel(chanelName);
 
+            });
+            channelTexts.put(chanelName, text);
+            channelsVBox.getChildren().add(text);
         }
     }
 
@@ -399,10 +418,18 @@ public class LobbyScene extends BaseScene{
     }
 
     /**
-     * Sends a request to get the list of channels
+     * Stops checking the channels once the player leaves the lobby
+     */
+    private void stopChannelDirectory() {
+        channelDirectory.stop();
+        this.getScene().getWindow().focusedProperty().removeListener(focusListener);
+    }
+
+    /**
+     * Sends a request to get the list of channels straight away
      */
     private void sendRequestToChanel() {
-        gameWindow.getCommunicator().send("LIST");
+        channelDirectory.refresh();
     }
 
 
@@ -410,79 +437,60 @@ public class LobbyScene extends BaseScene{
      * Sets up the communications listener to process incoming messages from the server
      */
     private void setUpCommunicationsListener() {
-        communicationsListener = communication -> {
-
-            if (communication.startsWith("CHANNELS")) {
-                int iterations=0;
-                channels = new ArrayList<String >();
-                for(String channelNames :communication.split("\n")) {
-                    if (iterations==0) {
-                        channelNames = channelNames.substring(9);
-                    }
-                    channels.add(channelNames);
-                    iterations ++;
-                }
-            } if (communication.startsWith("MSG")) {
-                multimedia.playAudioFile("/sounds/message.wav");
-                processIncomingMessages(communication);
-                //update
-
-            } if (communication.startsWith("HOST")) {
-                isHost = true;
-                Platform.runLater(this::displayChatArea);
-
-            } if (communication.startsWith("JOIN")) {
-                currentChannelName = "Current channel: " + communication.substring(5);
-                isHost = false;
-                //
-                multimedia.playAudioFile("/sounds/message.wav");
-                Platform.runLater(this::displayChatArea);
-            } if (communication.startsWith("USERS")) {
-                setUsers(communication);
-                Platform.runLater(() -> {
-                    displayUsersInChanel(communication);
-                });
-
-            } if (communication.startsWith("START")) {
-                Platform.runLater(this::startGame);
-            } if (communication.startsWith("NICK")) {
-                setCurrentName(communication);
-            } if (communication.startsWith("ERROR")) {
-                Platform.runLater(() -> {
-                    displayError(communication);
-                });
-            }
-
-        };
-
-        gameWindow.getCommunicator().addListener(communicationsListener);
+        Communicator communicator = gameWindow.getCommunicator();
+
+        channelDirectory = new ChannelDirectory(communicator);
+        channelDirectory.setListenerExecutor(Platform::runLater);
+        channelDirectory.setOnChannelsChanged(this::updateChannelDisplay);
+        communicator.addListener(Message.Msg.class, message -> {
+            multimedia.playAudioFile("/sounds/message.wav");
+            processIncomingMessages(message);
+        });
+        communicator.addListener(Message.Host.class, message -> {
+            isHost = true;
+            Platform.runLater(this::displayChatArea);
+        });
+        communicator.addListener(Message.Join.class, message -> {
+            currentChannelName = "Current channel: " + message.channel();
+            isHost = false;
+            multimedia.playAudioFile("/sounds/message.wav");
+            Platform.runLater(this::displayChatArea);
+        });
+        communicator.addListener(Message.Users.class, message -> {
+            setUsers(message.users());
+            //Only the newest list of users is shown, so any older list waiting for the next frame is dropped
+            gameWindow.getUpdateCoalescer().publish("USERS", () -> displayUsersInChanel(message.users()));
+        });
+        communicator.addListener(Message.Start.class, message -> Platform.runLater(this::startGame));
+        communicator.addListener(Message.Nick.class, message -> setCurrentName(message.name()));
+        communicator.addListener(Message.Error.class, message -> {
+            Platform.runLater(() -> {
+                displayError(message.text());
+            });
+        });
     }
 
     /**
      * Updates the users, who are currently in the channel
-     * @param string the users
+     * @param users the users
      */
-    private void setUsers(String string) {
-        string = string.substring(6);
-        usersWhoStartedGame = new ArrayList<>();
-        usersWhoStartedGame.addAll(Arrays.asList(string.split("\n")));
+    private void setUsers(List<String> users) {
+        usersWhoStartedGame = new ArrayList<>(users);
     }
 
     /**
      * Sets the current name of the user
-     * @param string name of user
+     * @param name name of user
      */
-    private void setCurrentName(String string) {
-        currentPlayerName = string.substring(5);
+    private void setCurrentName(String name) {
+        currentPlayerName = name;
     }
 
     /**
      * Displays an error message when an error is received
-     * @param error message of the error
+     * @param errorMessage message of the error
      */
-    private void displayError(String error) {
-        String errorMessage = error.substring(6);
-
+    private void displayError(String errorMessage) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
         alert.setHeaderText("ERROR");
@@ -496,10 +504,9 @@ public class LobbyScene extends BaseScene{
      * Displays the users that are currently in the channel
      * @param users users int the channel
      */
-    private void displayUsersInChanel(String users) {
+    private void displayUsersInChanel(List<String> users) {
         //First clears the display for the users
         currentUsersVBox.getChildren().clear();
-        users = users.substring(6);
 
 
         Text usersLabel = new Text("Users: ");
@@ -507,7 +514,7 @@ public class LobbyScene extends BaseScene{
         currentUsersVBox.getChildren().add(usersLabel);
 
         //Then loops through the users and adds them to the display
-        for(String user: users.split("\n")) {
+        for(String user: users) {
             Text newUser = new Text(user);
             newUser.getStyleClass().add("usersInChannel");
             currentUsersVBox.getChildren().add(newUser);
@@ -516,29 +523,4 @@ public class LobbyScene extends BaseScene{
     }
 
 
-    /**
-     * Sets a timer which continuously sends a LIST request to the server to update the channels
-     */
-    private void repeatChanelRequest() {
-
-        timer = new Timer();
-
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-
-                sendRequestToChanel();
-
-                Platform.runLater(() -> {
-                    updateChannelDisplay();
-                });
-
-            }
-        };
-
-        // Schedule the task to run every 2.5 seconds
-        timer.schedule(task, 0, 2500);
-    }
-
-
 }
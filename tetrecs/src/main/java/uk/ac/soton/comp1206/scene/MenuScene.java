@@ -15,11 +15,6 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 /**
  * The main menu of the game. Provides a gateway to the rest of the game.
@@ -92,6 +87,14 @@ public class MenuScene extends BaseScene {
         singleplayerButton.setOnMouseClicked(this::startGame);
         singleplayerButton.getStyleClass().add("menuItem");
 
+        var marathonButton = new Text("Marathon");
+        marathonButton.setOnMouseClicked(this::startMarathon);
+        marathonButton.getStyleClass().add("menuItem");
+
+        var replayButton = new Text("Replay");
+        replayButton.setOnMouseClicked(this::startReplay);
+        replayButton.getStyleClass().add("menuItem");
+
         var multiplayerButton = new Text("Multiplayer");
         multiplayerButton.getStyleClass().add("menuItem");
         multiplayerButton.setOnMouseClicked(this::loadLobby);
@@ -107,7 +110,8 @@ public class MenuScene extends BaseScene {
         VBox menuButtons = new VBox(10);
         menuButtons.setAlignment(Pos.CENTER);
         menuButtons.setPadding(new Insets(150,0,0,0));
-        menuButtons.getChildren().addAll(singleplayerButton,multiplayerButton,instructionsButton,exitButton);
+        menuButtons.getChildren().addAll(singleplayerButton,marathonButton,replayButton,multiplayerButton,instructionsButton,
+                exitButton);
 
 
         borderPane.setCenter(menuButtons);
@@ -123,35 +127,6 @@ public class MenuScene extends BaseScene {
      */
     @Override
     public void initialise() {
-
-        String fileName = "Scores.txt";
-
-        if (!Files.exists(Paths.get(fileName))) {
-            // Create the file if it doesn't exist
-            try {
-                Files.createFile(Paths.get(fileName));
-                logger.info("File created: " + fileName);
-
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-                    //Preload some scores if the file is empty
-                    writer.write("Bob:900");
-                    writer.newLine();
-                    writer.write("Jeff:300");
-                    writer.newLine();
-                    writer.write("Steve:200");
-                    writer.newLine();
-
-                    logger.info("Default scores written to the file");
-                } catch (IOException e) {
-                    logger.error("Error writing to file: " + e.getMessage());
-                }
-
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-
-        }
-
         this.getScene().setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.ESCAPE) {
                 gameWindow.exitGame();
@@ -172,6 +147,27 @@ public class MenuScene extends BaseScene {
         multimedia.playAudioFile("/sounds/transition.wav");
     }
 
+    /**
+     * Handle when the Marathon button is pressed
+     * @param event MouseEvent
+     */
+    private void startMarathon(MouseEvent event) {
+        gameWindow.startMarathon();
+        multimedia.stopMusic();
+        multimedia.playAudioFile("/sounds/transition.wav");
+    }
+
+    /**
+     * Handle when the Replay button is pressed, replaying the last game if there is one
+     * @param event MouseEvent
+     */
+    private void startReplay(MouseEvent event) {
+        if (gameWindow.startReplay()) {
+            multimedia.stopMusic();
+            multimedia.playAudioFile("/sounds/transition.wav");
+        }
+    }
+
     /**
      * Handle when the Instructions button is pressed
      * @param event MouseEvent
@@ -3,9 +3,9 @@ package uk.ac.soton.comp1206.scene;
 import javafx.animation.FillTransition;
 import javafx.animation.Transition;
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
@@ -15,36 +15,69 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBoard;
-import uk.ac.soton.comp1206.component.MultiplayerDisplayBoard;
+import uk.ac.soton.comp1206.component.OpponentView;
 import uk.ac.soton.comp1206.component.PieceBoard;
-import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.game.BlockCoordinateSet;
+import uk.ac.soton.comp1206.game.BoardCodec;
+import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
+import uk.ac.soton.comp1206.game.ai.BotPlayer;
+import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.ui.ChatLog;
+import uk.ac.soton.comp1206.ui.FxUpdateCoalescer;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.Timer;
 
 /**
  * The Single Player challenge scene. Holds the UI for the single player challenge mode in the game.
  */
 public class MultiplayerScene extends ChallengeScene{
 
-    private CommunicationsListener communicationsListener;
     private static final Logger logger = LogManager.getLogger(MenuScene.class);
+
+    /**
+     * The system property which, when true, hands the game to a bot, so this client plays as a bot opponent
+     */
+    public static final String BOT_PROPERTY = "tetrecs.bot";
+
     private MultiplayerGame game;
     private String currentPlayerName;
 
     private Text chatArea;
     private TextField inputField;
 
+    /**
+     * The recent chat messages, of which the newest is shown in the chat area
+     */
+    private final ChatLog chatLog = new ChatLog(20);
+
     private VBox versusDisplay;
+
+    /**
+     * The view of every opponent, by name
+     */
+    private final Map<String, OpponentView> opponents = new HashMap<>();
+
+    /**
+     * The bot playing the game, or null if the player is playing it
+     */
+    private BotPlayer bot;
     private ArrayList<String> existingUsers;
 
+    /**
+     * The board states received for each opponent which have not been shown yet, in order. A snapshot replaces
+     * everything before it, but every delta after the last snapshot has to be applied.
+     */
+    private final Map<String, List<String>> pendingBoards = new HashMap<>();
+
     /**
      * Create a new Multi Player challenge scene
      * @param gameWindow the Game Window
@@ -89,6 +122,11 @@ public class MultiplayerScene extends ChallengeScene{
 
         chatArea = new Text();
         chatArea.getStyleClass().add("chatMessage");
+        chatLog.addListener((ListChangeListener<String>) change -> {
+            if (!chatLog.isEmpty()) {
+                chatArea.setText("   " + chatLog.get(chatLog.size() - 1));
+            }
+        });
 
         chatInputAndOutputDisplay.getChildren().addAll(inputField,chatArea);
 
@@ -110,16 +148,9 @@ public class MultiplayerScene extends ChallengeScene{
 
         for(String user: existingUsers) {
             if (!Objects.equals(user, currentPlayerName)) {
-                var userVbox = new VBox();
-                var userInfo = new Text("  " + user + ":0");
-                userInfo.getStyleClass().add("versusDisplay");
-                userVbox.getChildren().add(userInfo);
-
-                var userBoard = new MultiplayerDisplayBoard(5,5,60,60);
-                userBoard.setPadding(new Insets(10,0,10,20));
-                userVbox.getChildren().add(userBoard);
-
-                versusDisplay.getChildren().add(userVbox);
+                var opponentView = new OpponentView(user);
+                opponents.put(user, opponentView);
+                versusDisplay.getChildren().add(opponentView);
             }
 
         }
@@ -233,11 +264,12 @@ public class MultiplayerScene extends ChallengeScene{
 
     /**
      * Handle when a block is clicked
-     * @param gameBlock the Game Block that was clocked
+     * @param x the column of the block that was clicked
+     * @param y the row of the block that was clicked
      */
     @Override
-    protected void blockClicked(GameBlock gameBlock) {
-        game.blockClicked(gameBlock);
+    protected void blockClicked(int x, int y) {
+        game.blockClicked(x,y);
     }
 
 
@@ -252,6 +284,9 @@ public class MultiplayerScene extends ChallengeScene{
         game.setAimChangedListener(this);
         game.setLineClearedListener(this);
         game.setGameLoopListener(this);
+        //Timeouts are delivered on the JavaFX thread, so the game and the scene are only ever changed from one thread
+        game.setTimeoutExecutor(Platform::runLater);
+        game.setJournalDirectory(Game.JOURNAL_DIRECTORY);
 
     }
 
@@ -263,6 +298,10 @@ public class MultiplayerScene extends ChallengeScene{
         logger.info("Initialising Challenge");
         game.start();
         setUpCommunicationsListener();
+        if (Boolean.getBoolean(BOT_PROPERTY)) {
+            bot = new BotPlayer(game, Platform::runLater);
+            bot.start();
+        }
         //send an initial scores request
         gameWindow.getCommunicator().send("SCORES");
 
@@ -270,10 +309,9 @@ public class MultiplayerScene extends ChallengeScene{
         //Handles keys pressed changing the current aim
         this.getScene().setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.ESCAPE) {
+                stopBot();
                 game.cancelTimer();
-                if (timer!=null) {
-                    timer.cancel();
-                }
+                game.closeJournal();
                 returnToMenu();
             }
 
@@ -389,25 +427,23 @@ public class MultiplayerScene extends ChallengeScene{
      * @param  gameBlockcoordinates the set of game blocks which are to be cleared
      */
     @Override
-    public void lineCleared(Set<String> gameBlockcoordinates) {
+    public void lineCleared(BlockCoordinateSet gameBlockcoordinates) {
         gameBoard.playFadeOutAnimation(gameBlockcoordinates);
     }
 
     /**
      * The game loop for the game
-     * @param timer the timer of the game
-     * @param runningOnDifferentThread used to check if the timer is running on a different thread
+     * @param timedOut used to check if the loop repeated because the player ran out of time
      * @param endGame used to check whether to end the game or not
      */
     @Override
-    public void gameLoop(Timer timer, boolean runningOnDifferentThread,boolean endGame) {
-        this.timer = timer;
+    public void gameLoop(boolean timedOut,boolean endGame) {
 
         if (!endGame) {
-            game.getTimerDelay();
-            setTimerBar(runningOnDifferentThread);
+            setTimerBar();
         } else {
             logger.info("GAME ENDDED");
+            stopBot();
             multimedia.stopMusic();
             Platform.runLater(() -> {
                 gameWindow.displayScores(game);
@@ -417,14 +453,22 @@ public class MultiplayerScene extends ChallengeScene{
 
     }
 
+    /**
+     * Stop the bot, if one is playing the game
+     */
+    private void stopBot() {
+        if (bot != null) {
+            bot.stop();
+        }
+    }
+
     /**
      * Sets the timer bar at the bottom of the screen
-     * @param runOnDifferentThread used to check which thread the current time bar is running on
      */
-    public void setTimerBar(Boolean runOnDifferentThread) {
+    public void setTimerBar() {
 
         stopAnimations();
-        removeTimeBar(runOnDifferentThread);
+        removeTimeBar();
 
 
         double initialWidth = gameWindow.getWidth(); // Initial width of the timer bar
@@ -459,10 +503,8 @@ public class MultiplayerScene extends ChallengeScene{
         fillTransition.play();
         widthTransition.play();
 
-        Platform.runLater(() -> {
-            timeBarPane.getChildren().add(timerBar);
-            timeBarPane.setPrefSize(gameWindow.getWidth(),10);
-        });
+        timeBarPane.getChildren().add(timerBar);
+        timeBarPane.setPrefSize(gameWindow.getWidth(),10);
 
     }
 
@@ -480,30 +522,20 @@ public class MultiplayerScene extends ChallengeScene{
 
     /**
      * Removes the time bar from the screen
-     * @param runOnDifferentThread is used to check which thread the time bar is running on
      */
-    private void removeTimeBar(boolean runOnDifferentThread) {
-        if (timerBar != null && timeBarPane.getChildren().contains(timerBar)) {
-            if (runOnDifferentThread) {
-                Platform.runLater(() -> {
-                    timeBarPane.getChildren().remove(timerBar);
-                });
-            } else {
-                timeBarPane.getChildren().remove(timerBar);
-            }
-
+    private void removeTimeBar() {
+        if (timerBar != null) {
+            timeBarPane.getChildren().remove(timerBar);
         }
     }
 
     /**
-     * Processes messages that are received and displays them
-     * @param string the message that was received
+     * Processes messages that are received and displays them. Called on the communicator's thread, so the message is
+     * posted to the chat log to be shown on the next batch.
+     * @param message the message that was received
      */
-    private void processIncomingMessages(String string) {
-        string = string.substring(4);
-        String sender = string.split(":")[0];
-        String message = string.split(":")[1];
-        chatArea.setText("   "+sender + ": " + message);
+    private void processIncomingMessages(Message.Msg message) {
+        chatLog.post(message.sender() + ": " + message.text());
 
     }
 
@@ -511,89 +543,89 @@ public class MultiplayerScene extends ChallengeScene{
      * Sets up communicator used to listen for incoming messages
      */
     public void setUpCommunicationsListener() {
-        communicationsListener = communication -> {
-            if (communication.startsWith("PIECE")) {
-                game.updatePiecesQueue(communication);
-            } if (communication.startsWith("MSG")) {
-                multimedia.playAudioFile("/sounds/message.wav");
-                processIncomingMessages(communication);
-            } if (communication.startsWith("SCORES")) {
-                Platform.runLater(() -> {
-                    updateScores(communication);
-                });
-            } if (communication.startsWith("BOARD")) {
-                Platform.runLater(() -> {
-                    updateVersusBoards(communication);
-                });
-            }
-        };
+        Communicator communicator = gameWindow.getCommunicator();
 
-        gameWindow.getCommunicator().addListener(communicationsListener);
+        communicator.addListener(Message.Piece.class, message -> {
+            Platform.runLater(() -> {
+                game.updatePiecesQueue(message.type());
+            });
+        });
+        communicator.addListener(Message.Msg.class, message -> {
+            multimedia.playAudioFile("/sounds/message.wav");
+            processIncomingMessages(message);
+        });
+        //Every SCORES message holds the whole table and every BOARD message is applied to the newest board, so only
+        //the newest of each per frame is shown. Pieces keep their own runLater, as none of them can be dropped.
+        FxUpdateCoalescer updates = gameWindow.getUpdateCoalescer();
+        communicator.addListener(Message.Scores.class, message ->
+                updates.publish("SCORES", () -> updateScores(message)));
+        communicator.addListener(Message.Board.class, message -> {
+            queueBoard(message);
+            updates.publish("BOARD " + message.name(), () -> applyBoards(message.name()));
+        });
     }
 
 
     /**
-     * Updates the game boards of the users playing against
-     * @param communication the BOARD message received
+     * Queues a board state to be shown on the next frame
+     * @param board the BOARD message received
      */
-    private void updateVersusBoards(String communication) {
-
-        communication = communication.substring(6);
-
-        String boardOwner = communication.split(":")[0].trim();
-        String boardState = communication.split(":")[1].trim();
-
-        //Checks for the user in the versusDisplay and updates their board accordingly
-        for(Node vBox: versusDisplay.getChildren()) {
-            Node textNode = ((VBox) vBox).getChildren().get(0);
+    private void queueBoard(Message.Board board) {
+        synchronized (pendingBoards) {
+            List<String> states = pendingBoards.computeIfAbsent(board.name(), name -> new ArrayList<>());
+            if (BoardCodec.isSnapshot(board.state())) {
+                //Anything before a snapshot is replaced by it, so it is never applied
+                states.clear();
+            }
+            states.add(board.state());
+        }
+    }
 
-            String[] nodeInfo = ((Text) textNode).getText().split(":");
-            if (Objects.equals(boardOwner, nodeInfo[0].trim())) {
-                MultiplayerDisplayBoard multiplayerDisplayBoard = (MultiplayerDisplayBoard) ((VBox) vBox).getChildren().get(1);
-                multiplayerDisplayBoard.setBoardDisplay(boardState);
+    /**
+     * Shows every board state received for an opponent since the last frame
+     * @param boardOwner the name of the opponent
+     */
+    private void applyBoards(String boardOwner) {
+        List<String> states;
+        synchronized (pendingBoards) {
+            states = pendingBoards.remove(boardOwner);
+        }
+        if (states != null) {
+            for (String state : states) {
+                updateVersusBoards(boardOwner, state);
             }
         }
     }
 
+    /**
+     * Updates the game boards of the users playing against
+     * @param boardOwner the name of the user whose board changed
+     * @param boardState the state of the board received
+     */
+    private void updateVersusBoards(String boardOwner, String boardState) {
+        OpponentView opponent = opponents.get(boardOwner);
+        if (opponent != null) {
+            opponent.setBoardState(boardState);
+        }
+    }
+
 
     /**
      * Updates the scores of the users playing against
      * @param scores the SCORES message received
      */
-    private void updateScores(String scores) {
-
-        scores = scores.substring(7);
-        String[] infoForEachPlayer = scores.split("\n");
+    private void updateScores(Message.Scores scores) {
 
         //Loops through every user in the scores provided
-        for (String info : infoForEachPlayer) {
-            String[] playerInfo = info.split(":");
-
-
-            game.updateScores(playerInfo[0] + ":" + playerInfo[1]);
-
-            //Loops through every node in the versus display
-            for(Node vBox: versusDisplay.getChildren()) {
-                Node textNode = ((VBox) vBox).getChildren().get(0);
-                //Text node contains the name of the user
-
-                String[] nodeInfo = ((Text) textNode).getText().split(":");
-                if (Objects.equals(playerInfo[0], nodeInfo[0].trim())) {
-                    //If the user in the scores matches the user in the versus display, then it updates their score
-
-                    //if dead, then apply the relevant styling to display their death
-                    if (Objects.equals(playerInfo[2], "DEAD")) {
-
-                        textNode.getStyleClass().clear();
-                        textNode.getStyleClass().add("userDead");
-                        ((Text) textNode).setStrikethrough(true);
-
-                    } else {
-                        ((Text) textNode).setText("  "+playerInfo[0] + ":" + playerInfo[1]);
-                    }
+        for (Message.PlayerScore player : scores.players()) {
 
-                }
+            game.updateScores(player.name(), player.score(), player.lives(), !player.isDead());
 
+            //Updates the opponent's view, which is not shown for the current player
+            OpponentView opponent = opponents.get(player.name());
+            if (opponent != null) {
+                opponent.scoreProperty().set(player.score());
+                opponent.deadProperty().set(player.isDead());
             }
         }
     }
@@ -0,0 +1,160 @@
+package uk.ac.soton.comp1206.scene;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.text.Text;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.component.GameBoard;
+import uk.ac.soton.comp1206.component.RealTimeReplay;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.journal.Replay;
+import uk.ac.soton.comp1206.game.journal.ReplayResult;
+import uk.ac.soton.comp1206.ui.GamePane;
+import uk.ac.soton.comp1206.ui.GameWindow;
+
+/**
+ * The replay scene of the game, plays a recorded journal back onto a game board at the speed it was played
+ */
+public class ReplayScene extends BaseScene {
+
+    private static final Logger logger = LogManager.getLogger(ReplayScene.class);
+
+    /**
+     * How many times faster than the recording the replay is played
+     */
+    public static final double REPLAY_SPEED = 1.0;
+
+    /**
+     * The journal being played
+     */
+    private final Replay replay;
+
+    /**
+     * The grid the journal is played onto
+     */
+    private final Grid grid;
+
+    /**
+     * Plays the journal onto the grid shown by the game board
+     */
+    private final RealTimeReplay realTimeReplay;
+
+    /**
+     * Shows how the replay is going
+     */
+    private Text statusText;
+
+    /**
+     * Create a new scene, passing in the GameWindow the scene will be displayed in
+     * @param gameWindow the game window
+     * @param replay the journal to play
+     * @throws IllegalArgumentException if the journal cannot be played
+     */
+    public ReplayScene(GameWindow gameWindow, Replay replay) {
+        super(gameWindow);
+        this.replay = replay;
+        this.grid = new Grid(replay.getCols(), replay.getRows());
+        this.realTimeReplay = new RealTimeReplay(replay, grid, REPLAY_SPEED);
+        realTimeReplay.setOnFinished(this::replayFinished);
+    }
+
+    /**
+     * Initialise this scene and start the replay. Called after creation
+     */
+    @Override
+    public void initialise() {
+
+        this.getScene().setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                returnToMenu();
+            }
+        });
+
+        realTimeReplay.start();
+    }
+
+    /**
+     * Build the replay layout
+     */
+    @Override
+    public void build() {
+        logger.info("Building " + this.getClass().getName());
+
+        root = new GamePane(gameWindow.getWidth(),gameWindow.getHeight());
+
+        var replayPane = new StackPane();
+        replayPane.setMaxWidth(gameWindow.getWidth());
+        replayPane.setMaxHeight(gameWindow.getHeight());
+        replayPane.getStyleClass().add("challenge-background");
+        root.getChildren().add(replayPane);
+
+        BorderPane borderPane = new BorderPane();
+
+        Text heading = new Text("Replay");
+        heading.getStyleClass().add("title");
+
+        Text backButton = new Text("Back [ESC]");
+        backButton.getStyleClass().add("menuItem");
+        backButton.setOnMouseClicked(this::returnToMenu);
+
+        var topPane = new StackPane();
+        topPane.getChildren().addAll(heading,backButton);
+        StackPane.setAlignment(backButton, Pos.CENTER_LEFT);
+        topPane.setPadding(new Insets(5));
+        borderPane.setTop(topPane);
+
+        //The replay plays onto its own grid, which the game board shows
+        var renderMode = Math.max(replay.getCols(), replay.getRows()) > ChallengeScene.MAX_BLOCKS_SIZE
+                ? GameBoard.RenderMode.CANVAS : GameBoard.RenderMode.BLOCKS;
+        var gameBoard = new GameBoard(grid,gameWindow.getWidth()/2,gameWindow.getWidth()/2,renderMode);
+        borderPane.setCenter(gameBoard);
+
+        statusText = new Text("Playing " + replay.getEvents().size() + " events");
+        statusText.getStyleClass().add("level");
+        var statusPane = new StackPane(statusText);
+        statusPane.setPadding(new Insets(5));
+        borderPane.setBottom(statusPane);
+
+        replayPane.getChildren().add(borderPane);
+
+        multimedia.playBackgroundMusic("/music/menu.mp3");
+    }
+
+    /**
+     * Show the result once every event has been played
+     * @param result the result of the replay
+     */
+    private void replayFinished(ReplayResult result) {
+        logger.info("Replay finished: {}", result);
+        if (!result.ended()) {
+            statusText.setText("Replay ended early with a score of " + result.actualScore());
+        } else if (result.verified()) {
+            statusText.setText("Final score: " + result.actualScore());
+        } else {
+            statusText.setText("Replay did not match the recorded score of " + result.expectedScore());
+        }
+    }
+
+    /**
+     * Stop the replay and return to the menu screen
+     */
+    private void returnToMenu() {
+        realTimeReplay.stop();
+        multimedia.stopMusic();
+        gameWindow.startMenu();
+        multimedia.playAudioFile("/sounds/transition.wav");
+    }
+
+    /**
+     * Stop the replay and return to the menu screen
+     * @param event the event which triggered the method
+     */
+    private void returnToMenu(MouseEvent event) {
+        returnToMenu();
+    }
+}
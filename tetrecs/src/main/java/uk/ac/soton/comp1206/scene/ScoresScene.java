@@ -1,6 +1,5 @@
 package uk.ac.soton.comp1206.scene;
 
-import javafx.application.Platform;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,14 +14,17 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.util.Pair;
 import uk.ac.soton.comp1206.component.ScoresList;
-import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.network.Message;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
+import uk.ac.soton.comp1206.game.PlayerEntry;
+import uk.ac.soton.comp1206.score.Leaderboard;
+import uk.ac.soton.comp1206.score.ScoreEntry;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
-import java.io.*;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The scores scene for the game. Displayed after either a single player game or a multiplayer game
@@ -49,10 +51,6 @@ public class ScoresScene extends BaseScene{
      * The score list component for the remote scores
      */
     private ScoresList remoteScoresListComponent;
-    /**
-     * The communications listener to receive information from
-     */
-    private CommunicationsListener communicationsListener;
     /**
      * The pane onto where the scores are set
      */
@@ -143,7 +141,7 @@ public class ScoresScene extends BaseScene{
                     if (event.getCode() == KeyCode.ENTER) {
                         String userInput = textField.getText();
                         localScores.add(new Pair<>(userInput, game.getScore().getValue()));
-                        writeScores();
+                        writeScore(userInput, game.getScore().getValue());
                         newHighScoreUser = userInput;
 
                         requestOnlineScore();
@@ -155,7 +153,7 @@ public class ScoresScene extends BaseScene{
                     //The name entered is stored and the user and score is saved to a file
                     String userInput = textField.getText();
                     localScores.add(new Pair<>(userInput, game.getScore().getValue()));
-                    writeScores();
+                    writeScore(userInput, game.getScore().getValue());
                     writeOnlineScores(userInput,game.getScore().getValue());
                     newHighScoreUser = userInput;
 
@@ -239,11 +237,8 @@ public class ScoresScene extends BaseScene{
         mainPane.setLeft(localScores);
         localScores.setPadding(new Insets(10,0,0,100));
 
-        //Cuts of the number of scores if greater than 10
-        remoteScores = (SimpleListProperty<Pair<String, Integer>>) remoteScoresListComponent.orderByScore(remoteScores);
-        while (remoteScores.size()>10) {
-            remoteScores.remove(10);
-        }
+        //Keeps only the top 10 online scores, in one change to the list
+        remoteScoresListComponent.orderByScore(remoteScores,10);
 
         //Vbox for the online scores
         VBox onlineScores = remoteScoresListComponent.getScoreVbox();
@@ -299,33 +294,14 @@ public class ScoresScene extends BaseScene{
 
         if (game instanceof MultiplayerGame) {
             //If the game object is an instance of the multiplayer game, then scores are retrieved from it
-            for (String usernameAndScore: ((MultiplayerGame) game).getUsersAndScores()) {
-                String name = usernameAndScore.split(":")[0];
-                int score = Integer.parseInt(usernameAndScore.split(":")[1]);
-                localScores.add(new Pair<>(name,score));
+            for (PlayerEntry player: ((MultiplayerGame) game).getScoreTable()) {
+                localScores.add(new Pair<>(player.name(),player.score()));
             }
 
         } else {
-            //If the game object is an instance of the game, then scores are retrieved from the Scores.txt file
-            String fileName = "Scores.txt";
-
-            try (BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName))) {
-                String line;
-                while ((line = bufferedReader.readLine()) != null) {
-                    // Split the line by ":" to separate key and value
-                    String[] nameAndScore = line.split(":");
-
-                    String name = nameAndScore[0].trim();
-                    int score = Integer.parseInt(nameAndScore[1].trim());
-                    //remove trailing spaces
-
-                    if (localScores.size() < 9) {
-                        localScores.add(new Pair<>(name,score));
-                    }
-
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+            //If the game object is an instance of the game, then scores are retrieved from the score store
+            for (ScoreEntry entry : gameWindow.getScoreStore(game).getTopScores(9)) {
+                localScores.add(new Pair<>(entry.name(),entry.score()));
             }
 
         }
@@ -333,48 +309,37 @@ public class ScoresScene extends BaseScene{
     }
 
     /**
-     * Writes a new high score into a file
+     * Saves a new high score to the score store
+     * @param name the name of the user
+     * @param score the score
      */
-    private void writeScores() {
-
-        String fileName = "Scores.txt";
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (Pair<String, Integer> pair : localScoresListComponent.orderByScore(localScores)) {
-                writer.write(pair.getKey() + ":" + pair.getValue()); // Writing the pair in format "String:Integer"
-                writer.newLine(); // Adding newline after each pair
-            }
-            System.out.println("Data has been written to the file successfully!");
-        } catch (IOException e) {
-            System.err.println("Error writing to file: " + e.getMessage());
-        }
+    private void writeScore(String name, int score) {
+        gameWindow.getScoreStore(game).add(name, score);
     }
 
 
     /**
      * Loads the online scores for the game
+     * @param hiScores the HISCORES message received
      */
-    private void loadOnlineScores(String communication) {
-
-        communication = communication.substring(9);
+    private void loadOnlineScores(Message.HiScores hiScores) {
 
-        for(String nameAndScore :communication.split("\n")) {
-            String name = nameAndScore.split(":")[0].trim();
-            Integer score = Integer.valueOf(nameAndScore.split(":")[1].trim());
-
-            //Only takes top 10 from the online scores list
-            if (remoteScores.size() < 10) {
-                remoteScores.add(new Pair<>(name,score));
-            }
+        //Only the top 10 online scores are kept, however many the server sends
+        Leaderboard<Pair<String,Integer>> leaderboard = new Leaderboard<>(10, Pair::getValue);
+        for(Message.NamedScore namedScore : hiScores.scores()) {
+            leaderboard.add(new Pair<>(namedScore.name(),namedScore.score()));
         }
 
         if (newHighScoreUser!=null) {
-            remoteScores.add(new Pair<>(newHighScoreUser,game.getScore().getValue()));
+            leaderboard.add(new Pair<>(newHighScoreUser,game.getScore().getValue()));
         }
+        List<Pair<String,Integer>> topScores = leaderboard.toList();
 
-
-        //Displays both Online scores and local/multiplayer scores
-        Platform.runLater(this::displayScores);
+        //Displays both Online scores and local/multiplayer scores on the next frame
+        gameWindow.getUpdateCoalescer().publish("HISCORES", () -> {
+            remoteScores.setAll(topScores);
+            displayScores();
+        });
 
     }
 
@@ -382,13 +347,7 @@ public class ScoresScene extends BaseScene{
      * Sets up communicator used to listen for incoming messages
      */
     private void setUpCommunicator() {
-        communicationsListener = communication -> {
-
-            if (communication.startsWith("HISCORES")) {
-                loadOnlineScores(communication);
-            }
-        };
-        this.gameWindow.getCommunicator().addListener(communicationsListener);
+        this.gameWindow.getCommunicator().addListener(Message.HiScores.class, this::loadOnlineScores);
     }
 
     /**
@@ -402,6 +361,10 @@ public class ScoresScene extends BaseScene{
      * Submits the user's score to the server using the communicator
      */
     private void writeOnlineScores(String userName, int newScore) {
+        if (game.isMarathon()) {
+            //The online scores are for the usual board, so marathon scores are only kept locally
+            return;
+        }
 
         this.gameWindow.getCommunicator().send("HISCORE <" + userName + ">:" + newScore);
 
@@ -0,0 +1,201 @@
+package uk.ac.soton.comp1206.score;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps the highest scoring entries out of any number offered to it, from the highest score to the lowest.
+ *
+ * Entries are kept in a sorted array and every new entry is put in place with a binary search, and an entry too low to
+ * make the leaderboard is turned away after a single comparison. A batch of entries which could all fit is sorted in
+ * one go instead, so ordering a whole list is O(n log n). Entries with equal scores stay in the order they were offered.
+ *
+ * @param <T> the type of the entries
+ */
+public class Leaderboard<T> {
+
+    /**
+     * Gets the score of an entry
+     */
+    private final ToIntFunction<? super T> scoreOf;
+
+    /**
+     * The most entries kept
+     */
+    private final int capacity;
+
+    /**
+     * The entries, from the highest score to the lowest
+     */
+    private Object[] entries;
+
+    /**
+     * The score of every entry, so scores are not worked out again while searching
+     */
+    private int[] scores;
+
+    /**
+     * The number of entries kept
+     */
+    private int size;
+
+    /**
+     * Create an empty leaderboard
+     * @param capacity the most entries to keep
+     * @param scoreOf gets the score of an entry
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public Leaderboard(int capacity, ToIntFunction<? super T> scoreOf) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Leaderboard capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.scoreOf = scoreOf;
+        int initial = Math.min(capacity, 16);
+        this.entries = new Object[initial];
+        this.scores = new int[initial];
+    }
+
+    /**
+     * Offer an entry to the leaderboard. If the leaderboard is full, the lowest entry is dropped to make room.
+     * @param entry the entry
+     * @return true if the entry was kept, false if its score was too low
+     */
+    public boolean add(T entry) {
+        int score = scoreOf.applyAsInt(entry);
+        if (size == capacity && score <= scores[size - 1]) {
+            return false;
+        }
+
+        //Find the first entry with a lower score, so equal scores stay in the order they were offered
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scores[middle] >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (size == entries.length && size < capacity) {
+            int grown = (int) Math.min(capacity, size * 2L);
+            entries = Arrays.copyOf(entries, grown);
+            scores = Arrays.copyOf(scores, grown);
+        }
+        int moved = Math.min(size, capacity - 1) - low;
+        System.arraycopy(entries, low, entries, low + 1, moved);
+        System.arraycopy(scores, low, scores, low + 1, moved);
+        entries[low] = entry;
+        scores[low] = score;
+        size = Math.min(size + 1, capacity);
+        return true;
+    }
+
+    /**
+     * Offer every entry in a collection to the leaderboard
+     * @param offered the entries
+     */
+    public void addAll(Collection<? extends T> offered) {
+        if (offered.size() > capacity) {
+            //Once the leaderboard is full, most entries are turned away after a single comparison
+            for (T entry : offered) {
+                add(entry);
+            }
+            return;
+        }
+
+        //Everything offered could fit, so one stable sort is cheaper than moving entries along for every insert
+        int total = size + offered.size();
+        Object[] merged = Arrays.copyOf(entries, total);
+        int[] mergedScores = Arrays.copyOf(scores, total);
+        int index = size;
+        for (T entry : offered) {
+            merged[index] = entry;
+            mergedScores[index] = scoreOf.applyAsInt(entry);
+            index++;
+        }
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(mergedScores[b], mergedScores[a]));
+
+        int kept = Math.min(total, capacity);
+        if (entries.length < kept) {
+            entries = new Object[kept];
+            scores = new int[kept];
+        }
+        for (int i = 0; i < kept; i++) {
+            entries[i] = merged[order[i]];
+            scores[i] = mergedScores[order[i]];
+        }
+        size = kept;
+    }
+
+    /**
+     * Get an entry
+     * @param rank the position of the entry, from 0 for the highest score
+     * @return the entry
+     * @throws IndexOutOfBoundsException if there is no entry at that position
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("No entry at rank " + rank);
+        }
+        return (T) entries[rank];
+    }
+
+    /**
+     * Get the lowest score which is still on the leaderboard
+     * @return the lowest score, or Integer.MIN_VALUE if the leaderboard is empty
+     */
+    public int getLowestScore() {
+        return size == 0 ? Integer.MIN_VALUE : scores[size - 1];
+    }
+
+    /**
+     * Get the number of entries kept
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the most entries kept
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void clear() {
+        Arrays.fill(entries, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Get a copy of the entries
+     * @return the entries from the highest score to the lowest, which cannot be changed
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add((T) entries[i]);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+}
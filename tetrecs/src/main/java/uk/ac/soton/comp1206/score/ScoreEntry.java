@@ -0,0 +1,8 @@
+package uk.ac.soton.comp1206.score;
+
+/**
+ * A single saved score
+ * @param name the name of the player
+ * @param score the score
+ */
+public record ScoreEntry(String name, int score) {}
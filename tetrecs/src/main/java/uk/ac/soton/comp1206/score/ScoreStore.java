@@ -0,0 +1,434 @@
+package uk.ac.soton.comp1206.score;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The local high scores, kept in a memory-mapped file of fixed size records so saving a score writes a single record
+ * rather than the whole file.
+ *
+ * The file starts with a header holding the number of records, followed by the records in the order they were saved.
+ * A new record is written and flushed before the count in the header is increased, so a crash part way through saving
+ * leaves the record out rather than leaving a broken one in. Every record also holds a checksum, and any record which
+ * does not match it is skipped when the file is opened.
+ *
+ * When the file is opened, every record is read into a sorted index, and the top scores are cached so asking for them
+ * never reads the file. If the file has no scores yet, the scores in the old Scores.txt format are moved into it.
+ */
+public class ScoreStore {
+
+    private static final Logger logger = LogManager.getLogger(ScoreStore.class);
+
+    /**
+     * The first four bytes of the file
+     */
+    private static final int MAGIC = 0x54455343;
+
+    /**
+     * The version of the file format
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Where the number of records is kept in the header
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    /**
+     * The size of every record in bytes
+     */
+    private static final int RECORD_SIZE = 64;
+
+    /**
+     * The longest name which can be saved, in UTF-8 bytes. Longer names are cut short.
+     */
+    public static final int MAX_NAME_BYTES = RECORD_SIZE - 10;
+
+    /**
+     * The number of records the file has room for when it is created
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The number of top scores which are cached
+     */
+    public static final int CACHED_SCORES = 10;
+
+    /**
+     * The scores saved when there are none at all
+     */
+    private static final List<ScoreEntry> DEFAULT_SCORES = List.of(
+            new ScoreEntry("Bob", 900), new ScoreEntry("Jeff", 300), new ScoreEntry("Steve", 200));
+
+    /**
+     * The file the scores are kept in
+     */
+    private final Path file;
+
+    /**
+     * The open file, or null if the scores are only kept in memory
+     */
+    private FileChannel channel;
+
+    /**
+     * The whole file mapped into memory, or null if the scores are only kept in memory
+     */
+    private MappedByteBuffer mapped;
+
+    /**
+     * The number of records the mapped file has room for
+     */
+    private int capacity;
+
+    /**
+     * The number of records written to the file, including any broken ones which were skipped
+     */
+    private int records;
+
+    /**
+     * Every score, in the order they were saved
+     */
+    private ScoreEntry[] entries = new ScoreEntry[INITIAL_CAPACITY];
+
+    /**
+     * The number of scores
+     */
+    private int count;
+
+    /**
+     * The index of every score in entries, from the highest score to the lowest. Equal scores are in the order they
+     * were saved.
+     */
+    private int[] sorted = new int[INITIAL_CAPACITY];
+
+    /**
+     * The top CACHED_SCORES scores, kept up to date as scores are added
+     */
+    private final Leaderboard<ScoreEntry> topScores = new Leaderboard<>(CACHED_SCORES, ScoreEntry::score);
+
+    /**
+     * The top scores as a list, or null if they have changed since it was made
+     */
+    private List<ScoreEntry> topScoresList;
+
+    /**
+     * Checks every record
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Open the scores in a file, creating it if needed. If the file cannot be opened, the scores are kept in memory
+     * until the game closes.
+     * @param file the file to keep the scores in
+     * @param legacyFile a file of scores in the old "name:score" format to move into a new file, which is left as it is
+     */
+    public ScoreStore(Path file, Path legacyFile) {
+        this.file = file;
+        try {
+            open();
+            if (count == 0) {
+                //Scores are never removed, so an empty file has not had the old scores moved into it yet
+                List<ScoreEntry> initial = readLegacy(legacyFile);
+                if (initial.isEmpty()) {
+                    initial = DEFAULT_SCORES;
+                } else {
+                    logger.info("Moving {} scores from {} to {}", initial.size(), legacyFile, file);
+                }
+                for (ScoreEntry entry : initial) {
+                    append(entry);
+                }
+                commit();
+            }
+        } catch (IOException e) {
+            logger.error("Could not open scores file {}, scores will not be saved: {}", file, e.getMessage());
+            close();
+            count = 0;
+            records = 0;
+            topScores.clear();
+            topScoresList = null;
+            for (ScoreEntry entry : DEFAULT_SCORES) {
+                append(entry);
+            }
+        }
+    }
+
+    /**
+     * Save a score
+     * @param name the name of the player, which is cut short if it is longer than MAX_NAME_BYTES
+     * @param score the score
+     */
+    public synchronized void add(String name, int score) {
+        append(new ScoreEntry(name, score));
+        commit();
+    }
+
+    /**
+     * Get the highest score saved
+     * @return the highest score, or 0 if there are none
+     */
+    public synchronized int getHighScore() {
+        return count == 0 ? 0 : entries[sorted[0]].score();
+    }
+
+    /**
+     * Get the highest scores, from the highest to the lowest
+     * @param limit the most scores to get
+     * @return the scores, which cannot be changed
+     */
+    public synchronized List<ScoreEntry> getTopScores(int limit) {
+        if (limit <= CACHED_SCORES) {
+            if (topScoresList == null) {
+                topScoresList = topScores.toList();
+            }
+            return topScoresList.subList(0, Math.min(limit, topScoresList.size()));
+        }
+        return buildTopScores(limit);
+    }
+
+    /**
+     * Get the number of scores saved
+     * @return the number of scores
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Close the file. Scores saved afterwards are only kept in memory.
+     */
+    public synchronized void close() {
+        mapped = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Could not close scores file: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Open and map the file, creating it if needed, and read every whole record in it
+     * @throws IOException if the file could not be opened or is not a scores file
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            map(INITIAL_CAPACITY);
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, VERSION);
+            mapped.putInt(COUNT_OFFSET, 0);
+            mapped.force();
+            return;
+        }
+
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException("Scores file is too short");
+        }
+        map((int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IOException("Not a scores file");
+        }
+
+        //Broken records are left where they are rather than written over, so a crash while opening cannot lose or
+        //repeat any good ones, and new records follow on after them
+        records = Math.min(mapped.getInt(COUNT_OFFSET), capacity);
+        for (int slot = 0; slot < records; slot++) {
+            ScoreEntry entry = readRecord(slot);
+            if (entry == null) {
+                logger.warn("Skipping broken score record {}", slot);
+            } else {
+                insert(entry);
+            }
+        }
+    }
+
+    /**
+     * Map the file with room for a number of records, growing it if needed
+     * @param records the number of records
+     * @throws IOException if the file could not be mapped
+     */
+    private void map(int records) throws IOException {
+        capacity = records;
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+    }
+
+    /**
+     * Add a score to the end of the file and the index, without updating the count in the header
+     * @param entry the score
+     */
+    private void append(ScoreEntry entry) {
+        entry = new ScoreEntry(truncate(entry.name()), entry.score());
+        if (mapped != null) {
+            try {
+                if (records == capacity) {
+                    //A file cut short can be opened with no room at all
+                    map(Math.max(INITIAL_CAPACITY, capacity * 2));
+                }
+                writeRecord(records, entry);
+                records++;
+            } catch (IOException e) {
+                logger.error("Could not grow scores file, scores will not be saved: {}", e.getMessage());
+                close();
+            }
+        }
+        insert(entry);
+    }
+
+    /**
+     * Flush every record written so far, then make them part of the file by updating the count in the header
+     */
+    private void commit() {
+        if (mapped == null) {
+            return;
+        }
+        mapped.force();
+        mapped.putInt(COUNT_OFFSET, records);
+        mapped.force(0, HEADER_SIZE);
+    }
+
+    /**
+     * Add a score to the sorted index
+     * @param entry the score
+     */
+    private void insert(ScoreEntry entry) {
+        if (count == entries.length) {
+            entries = Arrays.copyOf(entries, count * 2);
+            sorted = Arrays.copyOf(sorted, count * 2);
+        }
+        entries[count] = entry;
+
+        //Find the first score lower than this one, so equal scores stay in the order they were saved
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[sorted[middle]].score() >= entry.score()) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        System.arraycopy(sorted, low, sorted, low + 1, count - low);
+        sorted[low] = count;
+        count++;
+
+        if (topScores.add(entry)) {
+            topScoresList = null;
+        }
+    }
+
+    /**
+     * Work out the highest scores from the index
+     * @param limit the most scores to get
+     * @return the scores, which cannot be changed
+     */
+    private List<ScoreEntry> buildTopScores(int limit) {
+        List<ScoreEntry> top = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && i < limit; i++) {
+            top.add(entries[sorted[i]]);
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Write a score into a record of the mapped file
+     * @param slot the number of the record
+     * @param entry the score
+     */
+    private void writeRecord(int slot, ScoreEntry entry) {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(entry.score());
+        record.putShort((short) name.length);
+        record.put(name);
+        crc.reset();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        record.putInt(RECORD_SIZE - 4, (int) crc.getValue());
+        mapped.put(HEADER_SIZE + slot * RECORD_SIZE, record.array());
+    }
+
+    /**
+     * Read a score from a record of the mapped file
+     * @param slot the number of the record
+     * @return the score, or null if the record does not match its checksum
+     */
+    private ScoreEntry readRecord(int slot) {
+        byte[] record = new byte[RECORD_SIZE];
+        mapped.get(HEADER_SIZE + slot * RECORD_SIZE, record);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        crc.reset();
+        crc.update(record, 0, RECORD_SIZE - 4);
+        int nameLength = buffer.getShort(4);
+        if (buffer.getInt(RECORD_SIZE - 4) != (int) crc.getValue() || nameLength < 0
+                || nameLength > MAX_NAME_BYTES) {
+            return null;
+        }
+        return new ScoreEntry(new String(record, 6, nameLength, StandardCharsets.UTF_8), buffer.getInt(0));
+    }
+
+    /**
+     * Cut a name short so it fits in a record
+     * @param name the name
+     * @return the name, or as much of it as fits
+     */
+    private static String truncate(String name) {
+        while (name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            name = name.substring(0, name.offsetByCodePoints(name.length(), -1));
+        }
+        return name;
+    }
+
+    /**
+     * Read the scores from a file in the old "name:score" format
+     * @param legacyFile the file
+     * @return the scores, or none if there is no such file
+     */
+    private static List<ScoreEntry> readLegacy(Path legacyFile) {
+        List<ScoreEntry> scores = new ArrayList<>();
+        if (legacyFile == null || !Files.exists(legacyFile)) {
+            return scores;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(legacyFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int colon = line.lastIndexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                try {
+                    scores.add(new ScoreEntry(line.substring(0, colon).trim(),
+                            Integer.parseInt(line.substring(colon + 1).trim())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Skipping score line {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read old scores file {}: {}", legacyFile, e.getMessage());
+        }
+        return scores;
+    }
+
+}
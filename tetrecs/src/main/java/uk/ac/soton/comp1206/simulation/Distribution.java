@@ -0,0 +1,184 @@
+package uk.ac.soton.comp1206.simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Counts how often values occur, in buckets of a fixed width, so the distribution of millions of values takes only a
+ * small array. Values below 0 are counted in the first bucket.
+ *
+ * A Distribution is not safe to share between threads. Each thread fills its own and they are merged at the end.
+ */
+public class Distribution {
+
+    /**
+     * The width of every bucket
+     */
+    private final int bucketWidth;
+
+    /**
+     * The number of values in every bucket
+     */
+    private long[] counts = new long[16];
+
+    /**
+     * The number of values counted
+     */
+    private long count;
+
+    /**
+     * The total of every value counted
+     */
+    private long sum;
+
+    /**
+     * The smallest value counted
+     */
+    private int min = Integer.MAX_VALUE;
+
+    /**
+     * The largest value counted
+     */
+    private int max = Integer.MIN_VALUE;
+
+    /**
+     * Create a new, empty distribution
+     * @param bucketWidth the width of every bucket
+     * @throws IllegalArgumentException if the width is less than 1
+     */
+    public Distribution(int bucketWidth) {
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("Bucket width must be at least 1: " + bucketWidth);
+        }
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Count a value
+     * @param value the value
+     */
+    public void add(int value) {
+        addToBucket(Math.max(0, value) / bucketWidth, 1);
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add every value counted by another distribution with the same bucket width
+     * @param other the other distribution
+     * @throws IllegalArgumentException if the bucket widths are different
+     */
+    public void merge(Distribution other) {
+        if (other.bucketWidth != bucketWidth) {
+            throw new IllegalArgumentException("Cannot merge bucket widths " + bucketWidth + " and " + other.bucketWidth);
+        }
+        for (int bucket = 0; bucket < other.counts.length; bucket++) {
+            if (other.counts[bucket] != 0) {
+                addToBucket(bucket, other.counts[bucket]);
+            }
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Add to the count of a bucket, growing the array of buckets if needed
+     * @param bucket the bucket
+     * @param amount how much to add
+     */
+    private void addToBucket(int bucket, long amount) {
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        }
+        counts[bucket] += amount;
+    }
+
+    /**
+     * Get the number of values counted
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the total of every value counted
+     * @return the total
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the mean of every value counted
+     * @return the mean, or 0 if nothing was counted
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get the smallest value counted
+     * @return the smallest value, or 0 if nothing was counted
+     */
+    public int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Get the largest value counted
+     * @return the largest value, or 0 if nothing was counted
+     */
+    public int getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Get the bucket which a given fraction of the values are in or below
+     * @param fraction the fraction, from 0.0 to 1.0
+     * @return the lowest value of the bucket, or 0 if nothing was counted
+     */
+    public int getPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= target && seen > 0) {
+                return bucket * bucketWidth;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Write every bucket as CSV, one line for each bucket from the first to the last with any values in
+     * @param writer where to write
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("bucket,count\n");
+        int last = counts.length - 1;
+        while (last > 0 && counts[last] == 0) {
+            last--;
+        }
+        for (int bucket = 0; bucket <= last; bucket++) {
+            writer.write(bucket * bucketWidth + "," + counts[bucket] + "\n");
+        }
+    }
+
+    /**
+     * Describe the distribution in one line
+     * @return the mean, minimum, median, 90th and 99th percentiles and maximum
+     */
+    @Override
+    public String toString() {
+        return String.format("mean %.1f, min %d, p50 %d, p90 %d, p99 %d, max %d", getMean(), getMin(),
+                getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax());
+    }
+
+}
@@ -0,0 +1,49 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.LegalMoveIndex;
+import uk.ac.soton.comp1206.game.Placement;
+import uk.ac.soton.comp1206.game.PlacementPolicy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays every piece in the first place it fits, looking along each row from the top left in every rotation in turn.
+ * The cheapest possible player, used to measure how fast the rules themselves run.
+ */
+public class FirstFitPolicy implements PlacementPolicy {
+
+    /**
+     * Choose the first place the current piece fits
+     * @param engine the game
+     * @param random not used
+     * @return where to play the piece, or null if it does not fit anywhere
+     */
+    @Override
+    public Placement choose(GameEngine engine, SplittableRandom random) {
+        Board board = engine.getBoard();
+        LegalMoveIndex index = board.getLegalMoveIndex();
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            GamePiece piece = engine.getCurrentPiece().rotate(rotation);
+            if (index != null) {
+                //The index already knows the first place, so there is no need to scan
+                int place = index.find(piece, 0);
+                if (place >= 0) {
+                    return new Placement(place % board.getCols(), place / board.getCols(), rotation);
+                }
+                continue;
+            }
+            for (int y = 0; y < board.getRows(); y++) {
+                for (int x = 0; x < board.getCols(); x++) {
+                    if (board.canPlayPiece(x, y, piece)) {
+                        return new Placement(x, y, rotation);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,83 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.LegalMoveIndex;
+import uk.ac.soton.comp1206.game.Placement;
+import uk.ac.soton.comp1206.game.PlacementPolicy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays every piece in a random place it fits, with every place and rotation equally likely. A rough stand in for a
+ * player who does not plan ahead.
+ */
+public class RandomPolicy implements PlacementPolicy {
+
+    /**
+     * Choose a random place the current piece fits
+     * @param engine the game
+     * @param random the source of randomness for this game
+     * @return where to play the piece, or null if it does not fit anywhere
+     */
+    @Override
+    public Placement choose(GameEngine engine, SplittableRandom random) {
+        Board board = engine.getBoard();
+        LegalMoveIndex index = board.getLegalMoveIndex();
+        if (index != null) {
+            return chooseFromIndex(engine.getCurrentPiece(), board.getCols(), index, random);
+        }
+
+        int chosenX = 0;
+        int chosenY = 0;
+        int chosenRotation = 0;
+        int found = 0;
+
+        //Reservoir sampling, so a random place is picked in one pass without listing every place
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            GamePiece piece = engine.getCurrentPiece().rotate(rotation);
+            for (int y = 0; y < board.getRows(); y++) {
+                for (int x = 0; x < board.getCols(); x++) {
+                    if (board.canPlayPiece(x, y, piece) && random.nextInt(++found) == 0) {
+                        chosenX = x;
+                        chosenY = y;
+                        chosenRotation = rotation;
+                    }
+                }
+            }
+        }
+        return found == 0 ? null : new Placement(chosenX, chosenY, chosenRotation);
+    }
+
+    /**
+     * Choose a random place using the counts kept by the index, without scanning the board
+     * @param current the current piece
+     * @param cols the number of columns of the board
+     * @param index the index of the board
+     * @param random the source of randomness for this game
+     * @return where to play the piece, or null if it does not fit anywhere
+     */
+    private Placement chooseFromIndex(GamePiece current, int cols, LegalMoveIndex index, SplittableRandom random) {
+        int total = 0;
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            total += index.count(current.rotate(rotation));
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        int pick = random.nextInt(total);
+        for (int rotation = 0; rotation < GamePiece.ORIENTATIONS; rotation++) {
+            GamePiece piece = current.rotate(rotation);
+            int count = index.count(piece);
+            if (pick < count) {
+                int place = index.find(piece, pick);
+                return new Placement(place % cols, place / cols, rotation);
+            }
+            pick -= count;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,49 @@
+package uk.ac.soton.comp1206.simulation;
+
+/**
+ * The settings for a run of simulated games
+ * @param games the number of games to play
+ * @param cols the number of columns of every board
+ * @param rows the number of rows of every board
+ * @param seed the seed every game's pieces and choices are derived from
+ * @param policy the name of the placement policy
+ * @param pieces the name of the piece generator: uniform or bag
+ * @param threads the number of threads to play games on
+ * @param maxPlacements the most pieces a single game may place before it is stopped
+ * @param scoreBucket the width of every bucket of the score distribution
+ */
+public record SimulationConfig(long games, int cols, int rows, long seed, String policy, String pieces, int threads,
+                               int maxPlacements, int scoreBucket) {
+
+    /**
+     * Check the settings are usable
+     * @throws IllegalArgumentException if any setting is out of range
+     */
+    public SimulationConfig {
+        if (games < 1) {
+            throw new IllegalArgumentException("Need at least 1 game: " + games);
+        }
+        if (cols < 1 || rows < 1) {
+            throw new IllegalArgumentException("Board must be at least 1x1: " + cols + "x" + rows);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least 1 thread: " + threads);
+        }
+        if (maxPlacements < 1) {
+            throw new IllegalArgumentException("Need at least 1 placement per game: " + maxPlacements);
+        }
+        if (scoreBucket < 1) {
+            throw new IllegalArgumentException("Score bucket must be at least 1: " + scoreBucket);
+        }
+    }
+
+    /**
+     * The settings used when none are given: 10,000 random games on the 5x5 board using every available processor
+     * @return the default settings
+     */
+    public static SimulationConfig defaults() {
+        return new SimulationConfig(10_000, 5, 5, 1206, "random", "uniform",
+                Runtime.getRuntime().availableProcessors(), 100_000, 100);
+    }
+
+}
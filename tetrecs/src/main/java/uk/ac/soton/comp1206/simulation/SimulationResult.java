@@ -0,0 +1,183 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.GameEngine;
+
+/**
+ * The totals and distributions collected from simulated games. Each thread collects its own results, which are then
+ * merged.
+ */
+public class SimulationResult {
+
+    /**
+     * The final score of every game
+     */
+    private final Distribution scores;
+
+    /**
+     * The final level of every game
+     */
+    private final Distribution levels;
+
+    /**
+     * The lives left at the end of every game, which is 0 unless the game was stopped early
+     */
+    private final Distribution lives;
+
+    /**
+     * The level the player was on each time a life was lost
+     */
+    private final Distribution livesLostByLevel = new Distribution(1);
+
+    /**
+     * The number of pieces placed in every game
+     */
+    private final Distribution placements = new Distribution(10);
+
+    /**
+     * The number of games played
+     */
+    private long games;
+
+    /**
+     * The number of games stopped because they reached the most placements allowed
+     */
+    private long stoppedGames;
+
+    /**
+     * The number of lines cleared across every game
+     */
+    private long linesCleared;
+
+    /**
+     * Create a new, empty result
+     * @param scoreBucket the width of every bucket of the score distribution
+     */
+    public SimulationResult(int scoreBucket) {
+        this.scores = new Distribution(scoreBucket);
+        this.levels = new Distribution(1);
+        this.lives = new Distribution(1);
+    }
+
+    /**
+     * Record the end of a game
+     * @param engine the game
+     * @param placed the number of pieces placed in the game
+     * @param stopped whether the game was stopped before it ended
+     */
+    public void addGame(GameEngine engine, int placed, boolean stopped) {
+        games++;
+        if (stopped) {
+            stoppedGames++;
+        }
+        scores.add(engine.getScore());
+        levels.add(engine.getLevel());
+        lives.add(engine.getLives());
+        placements.add(placed);
+    }
+
+    /**
+     * Record a life being lost
+     * @param level the level the player was on
+     */
+    public void addLifeLost(int level) {
+        livesLostByLevel.add(level);
+    }
+
+    /**
+     * Record lines being cleared
+     * @param lines the number of lines
+     */
+    public void addLinesCleared(int lines) {
+        linesCleared += lines;
+    }
+
+    /**
+     * Add everything recorded by another result
+     * @param other the other result
+     * @return this result
+     */
+    public SimulationResult merge(SimulationResult other) {
+        scores.merge(other.scores);
+        levels.merge(other.levels);
+        lives.merge(other.lives);
+        livesLostByLevel.merge(other.livesLostByLevel);
+        placements.merge(other.placements);
+        games += other.games;
+        stoppedGames += other.stoppedGames;
+        linesCleared += other.linesCleared;
+        return this;
+    }
+
+    /**
+     * Get the final score of every game
+     * @return the scores
+     */
+    public Distribution getScores() {
+        return scores;
+    }
+
+    /**
+     * Get the final level of every game
+     * @return the levels
+     */
+    public Distribution getLevels() {
+        return levels;
+    }
+
+    /**
+     * Get the lives left at the end of every game
+     * @return the lives
+     */
+    public Distribution getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the level the player was on each time a life was lost
+     * @return the levels
+     */
+    public Distribution getLivesLostByLevel() {
+        return livesLostByLevel;
+    }
+
+    /**
+     * Get the number of pieces placed in every game
+     * @return the placements
+     */
+    public Distribution getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Get the number of games played
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Get the number of games stopped because they reached the most placements allowed
+     * @return the number of games
+     */
+    public long getStoppedGames() {
+        return stoppedGames;
+    }
+
+    /**
+     * Get the number of lines cleared across every game
+     * @return the number of lines
+     */
+    public long getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * Get the number of pieces placed across every game
+     * @return the number of pieces
+     */
+    public long getTotalPlacements() {
+        return placements.getSum();
+    }
+
+}
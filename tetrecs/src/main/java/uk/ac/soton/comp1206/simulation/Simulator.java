@@ -0,0 +1,358 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.PieceGenerator;
+import uk.ac.soton.comp1206.game.Placement;
+import uk.ac.soton.comp1206.game.PlacementPolicy;
+import uk.ac.soton.comp1206.game.ai.SearchPolicy;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games of TetrECS without a display, in parallel, to see how changes to the rules affect scores, levels and
+ * lives. Each game runs on its own GameEngine and a PlacementPolicy decides every move. Games have no clock, so a life
+ * is only lost when the current piece does not fit anywhere.
+ *
+ * Every game's pieces and choices are derived from the seed and the number of the game, so a run gives the same
+ * results however many threads it uses.
+ *
+ * Run from the command line, after compiling, with
+ * java -cp target/classes uk.ac.soton.comp1206.simulation.Simulator [options]
+ * or subclass it and override createEngine to try out a change to the rules.
+ */
+public class Simulator {
+
+    /**
+     * The placement policies which can be picked by name
+     */
+    private static final Map<String, Supplier<PlacementPolicy>> POLICIES = Map.of(
+            "random", RandomPolicy::new,
+            "first", FirstFitPolicy::new,
+            "search", SearchPolicy::new);
+
+    /**
+     * The number of games below which a task plays its games itself rather than splitting them further
+     */
+    private static final long GAMES_PER_TASK = 64;
+
+    /**
+     * The settings for the run
+     */
+    private final SimulationConfig config;
+
+    /**
+     * Decides every move of every game
+     */
+    private final PlacementPolicy policy;
+
+    /**
+     * Create a new simulator, with the policy named in the settings
+     * @param config the settings for the run
+     * @throws IllegalArgumentException if there is no policy with that name
+     */
+    public Simulator(SimulationConfig config) {
+        this(config, createPolicy(config.policy()));
+    }
+
+    /**
+     * Create a new simulator with the given policy
+     * @param config the settings for the run
+     * @param policy decides every move of every game
+     */
+    public Simulator(SimulationConfig config, PlacementPolicy policy) {
+        this.config = config;
+        this.policy = policy;
+    }
+
+    /**
+     * Play every game
+     * @return the results of every game
+     */
+    public SimulationResult run() {
+        ForkJoinPool pool = new ForkJoinPool(config.threads());
+        try {
+            return pool.invoke(new GamesTask(0, config.games()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Create the engine for a game. Override to try out a change to the rules, such as a different score or timer.
+     * @param seed the seed for the game's pieces
+     * @return the engine
+     */
+    protected GameEngine createEngine(long seed) {
+        PieceGenerator pieces = switch (config.pieces()) {
+            case "uniform" -> PieceGenerator.uniform(seed);
+            case "bag" -> PieceGenerator.bag(seed);
+            default -> throw new IllegalArgumentException("Unknown piece generator: " + config.pieces());
+        };
+        Board board = new Board(config.cols(), config.rows());
+        board.enableLegalMoveIndex();
+        return new GameEngine(board, pieces);
+    }
+
+    /**
+     * Play a single game from start to finish
+     * @param game the number of the game
+     * @param result where to record the game
+     */
+    protected void playGame(long game, SimulationResult result) {
+        SplittableRandom random = new SplittableRandom(gameSeed(config.seed(), game));
+        GameEngine engine = createEngine(random.nextLong());
+        engine.start();
+
+        int placed = 0;
+        while (!engine.isGameOver() && placed < config.maxPlacements()) {
+            Placement placement = policy.choose(engine, random);
+            if (placement != null) {
+                engine.rotateCurrentPiece(placement.rotation());
+            }
+            if (placement != null && engine.place(placement.x(), placement.y())) {
+                placed++;
+                if (engine.getLastLinesCleared() > 0) {
+                    result.addLinesCleared(engine.getLastLinesCleared());
+                }
+            } else {
+                //Nowhere to play, so the player runs out of time
+                result.addLifeLost(engine.getLevel());
+                engine.timeout();
+            }
+        }
+        result.addGame(engine, placed, !engine.isGameOver());
+    }
+
+    /**
+     * Work out the seed of a single game, so every game gets an unrelated stream of random numbers
+     * @param seed the seed of the run
+     * @param game the number of the game
+     * @return the seed of the game
+     */
+    static long gameSeed(long seed, long game) {
+        //The finaliser from MurmurHash3
+        long z = seed + game * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Create a placement policy from its name
+     * @param name the name of the policy
+     * @return the policy
+     * @throws IllegalArgumentException if there is no policy with that name
+     */
+    public static PlacementPolicy createPolicy(String name) {
+        Supplier<PlacementPolicy> policy = POLICIES.get(name);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown policy: " + name + ", expected one of " + POLICIES.keySet());
+        }
+        return policy.get();
+    }
+
+    /**
+     * Plays a range of games, splitting it in half until it is small enough to play on one thread
+     */
+    private class GamesTask extends RecursiveTask<SimulationResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The number of the first game to play
+         */
+        private final long from;
+
+        /**
+         * The number after the last game to play
+         */
+        private final long to;
+
+        /**
+         * Create a new task
+         * @param from the number of the first game to play
+         * @param to the number after the last game to play
+         */
+        GamesTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Play the games, or split them and merge the results
+         * @return the results of the games
+         */
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationResult result = new SimulationResult(config.scoreBucket());
+                for (long game = from; game < to; game++) {
+                    playGame(game, result);
+                }
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            SimulationResult right = new GamesTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Run a simulation from the command line and print the results. With --out the distributions are also written as
+     * CSV files to the given directory.
+     * @param args commandline arguments
+     */
+    public static void main(String[] args) {
+        SimulationConfig config;
+        Path out;
+        try {
+            SimulationConfig defaults = SimulationConfig.defaults();
+            long games = defaults.games();
+            int cols = defaults.cols();
+            int rows = defaults.rows();
+            long seed = defaults.seed();
+            String policy = defaults.policy();
+            String pieces = defaults.pieces();
+            int threads = defaults.threads();
+            int maxPlacements = defaults.maxPlacements();
+            int scoreBucket = defaults.scoreBucket();
+            out = null;
+
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--help")) {
+                    printUsage();
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--games" -> games = Long.parseLong(value);
+                    case "--size" -> cols = rows = Integer.parseInt(value);
+                    case "--cols" -> cols = Integer.parseInt(value);
+                    case "--rows" -> rows = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--policy" -> policy = value;
+                    case "--pieces" -> pieces = value;
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--max-placements" -> maxPlacements = Integer.parseInt(value);
+                    case "--score-bucket" -> scoreBucket = Integer.parseInt(value);
+                    case "--out" -> out = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            config = new SimulationConfig(games, cols, rows, seed, policy, pieces, threads, maxPlacements,
+                    scoreBucket);
+            createPolicy(policy);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        long start = System.nanoTime();
+        SimulationResult result = new Simulator(config).run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        String summary = summarise(config, result, seconds);
+        System.out.print(summary);
+
+        if (out != null) {
+            try {
+                writeResults(out, summary, result);
+                System.out.println("Distributions written to " + out.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("Could not write results: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Describe the results of a run
+     * @param config the settings for the run
+     * @param result the results
+     * @param seconds how long the run took
+     * @return the description
+     */
+    private static String summarise(SimulationConfig config, SimulationResult result, double seconds) {
+        long placements = result.getTotalPlacements();
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%d games on %dx%d, policy %s, pieces %s, seed %d, %d threads%n",
+                result.getGames(), config.cols(), config.rows(), config.policy(), config.pieces(), config.seed(),
+                config.threads()));
+        summary.append(String.format("%d placements in %.2fs, %.0f per minute%n",
+                placements, seconds, placements / seconds * 60));
+        summary.append(String.format("%d lines cleared, %d games stopped at %d placements%n",
+                result.getLinesCleared(), result.getStoppedGames(), config.maxPlacements()));
+        summary.append("Score: ").append(result.getScores()).append(System.lineSeparator());
+        summary.append("Level: ").append(result.getLevels()).append(System.lineSeparator());
+        summary.append("Lives left: ").append(result.getLives()).append(System.lineSeparator());
+        summary.append("Level when a life was lost: ").append(result.getLivesLostByLevel())
+                .append(System.lineSeparator());
+        summary.append("Placements: ").append(result.getPlacements()).append(System.lineSeparator());
+        return summary.toString();
+    }
+
+    /**
+     * Write the summary and every distribution to a directory
+     * @param directory the directory, which is created if needed
+     * @param summary the summary of the run
+     * @param result the results
+     * @throws IOException if writing fails
+     */
+    private static void writeResults(Path directory, String summary, SimulationResult result) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        writeCsv(directory.resolve("scores.csv"), result.getScores());
+        writeCsv(directory.resolve("levels.csv"), result.getLevels());
+        writeCsv(directory.resolve("lives.csv"), result.getLives());
+        writeCsv(directory.resolve("lives-lost-by-level.csv"), result.getLivesLostByLevel());
+        writeCsv(directory.resolve("placements.csv"), result.getPlacements());
+    }
+
+    /**
+     * Write a distribution to a CSV file
+     * @param file the file
+     * @param distribution the distribution
+     * @throws IOException if writing fails
+     */
+    private static void writeCsv(Path file, Distribution distribution) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            distribution.writeCsv(writer);
+        }
+    }
+
+    /**
+     * Print the command line options
+     */
+    private static void printUsage() {
+        System.err.println("""
+                Options:
+                  --games N            number of games to play (default 10000)
+                  --size N             columns and rows of the board (default 5)
+                  --cols N, --rows N   columns or rows of the board
+                  --seed N             seed for every game (default 1206)
+                  --policy NAME        random, first or search (default random)
+                  --pieces NAME        uniform or bag (default uniform)
+                  --threads N          threads to play on (default every processor)
+                  --max-placements N   stop a game after this many pieces (default 100000)
+                  --score-bucket N     width of the score distribution buckets (default 100)
+                  --out DIR            also write the distributions as CSV files to DIR""");
+    }
+
+}
@@ -0,0 +1,173 @@
+package uk.ac.soton.comp1206.ui;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The lines of a chat, kept in a ring buffer which holds at most a fixed number of lines. Once it is full, every new
+ * line replaces the oldest one, so the memory used and the cost of adding a line stay the same however long the chat
+ * goes on.
+ *
+ * Lines can be added from any thread, such as the communicator's. They are queued and applied on the JavaFX thread in
+ * batches, with a single runLater and a single change event for everything which arrived since the last batch. The log
+ * is itself an ObservableList, so it can be shown directly by a ListView, which only creates cells for the visible
+ * lines.
+ */
+public class ChatLog extends ObservableListBase<String> {
+
+    /**
+     * The number of lines kept when no capacity is given
+     */
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /**
+     * The lines, starting at head and wrapping round
+     */
+    private final String[] lines;
+
+    /**
+     * The index in lines of the oldest line
+     */
+    private int head;
+
+    /**
+     * The number of lines kept
+     */
+    private int size;
+
+    /**
+     * Lines which have been added but not applied on the JavaFX thread yet
+     */
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a batch has been handed to runLater and not applied yet
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Create a chat log which keeps DEFAULT_CAPACITY lines
+     */
+    public ChatLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a chat log
+     * @param capacity the most lines to keep
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public ChatLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Chat log capacity must be at least 1");
+        }
+        this.lines = new String[capacity];
+    }
+
+    /**
+     * Add a line to the chat. Can be called from any thread. The line appears on the next batch.
+     * @param line the line
+     */
+    public void post(String line) {
+        pending.add(line);
+        if (flushScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::flush);
+        }
+    }
+
+    /**
+     * Remove every line, including any which have not been applied yet. Must be called on the JavaFX thread.
+     */
+    @Override
+    public void clear() {
+        pending.clear();
+        if (size == 0) {
+            return;
+        }
+        List<String> removed = new ArrayList<>(this);
+        Arrays.fill(lines, null);
+        head = 0;
+        size = 0;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+
+    /**
+     * Get a line
+     * @param index the index of the line, from 0 for the oldest
+     * @return the line
+     * @throws IndexOutOfBoundsException if there is no line at that index
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No line at " + index);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    /**
+     * Get the number of lines kept
+     * @return the number of lines
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the most lines kept
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * Apply every queued line as one change, dropping the oldest lines to make room
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        List<String> batch = new ArrayList<>();
+        String line;
+        while ((line = pending.poll()) != null) {
+            batch.add(line);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() > lines.length) {
+            //Lines which would be replaced within the same batch are never shown
+            batch = batch.subList(batch.size() - lines.length, batch.size());
+        }
+
+        int dropped = Math.max(0, size + batch.size() - lines.length);
+        List<String> removed = new ArrayList<>(dropped);
+        for (int i = 0; i < dropped; i++) {
+            removed.add(lines[head]);
+            lines[head] = null;
+            head = (head + 1) % lines.length;
+        }
+        size -= dropped;
+
+        for (String added : batch) {
+            lines[(head + size) % lines.length] = added;
+            size++;
+        }
+
+        beginChange();
+        if (dropped > 0) {
+            nextRemove(0, removed);
+        }
+        nextAdd(size - batch.size(), size);
+        endChange();
+    }
+
+}
@@ -0,0 +1,129 @@
+package uk.ac.soton.comp1206.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies updates to the display once per frame, keeping only the newest update for each key.
+ *
+ * Network threads publish an update under a key, such as the name of the opponent whose board changed. If another
+ * update is published under the same key before the next frame, it replaces the first, which is never run. On every
+ * frame, the updates waiting are run on the JavaFX thread in the order their keys were first published, so a burst of
+ * messages costs one update per key per frame rather than one runLater each.
+ *
+ * The frame timer only runs while updates are waiting, so JavaFX is not kept drawing frames when nothing has changed.
+ */
+public class FxUpdateCoalescer {
+
+    /**
+     * Runs the updates waiting on the next frame, and is stopped once there are none
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    /**
+     * The newest update for every key published since the last frame
+     */
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+
+    /**
+     * Whether the timer has been asked to start since the updates were last run
+     */
+    private boolean scheduled;
+
+    /**
+     * The number of updates published
+     */
+    private long publishedCount;
+
+    /**
+     * The number of updates which were replaced before they ran
+     */
+    private long droppedCount;
+
+    /**
+     * The number of frames which ran at least one update
+     */
+    private long frameCount;
+
+    /**
+     * Publish an update to run on the next frame, replacing any update with the same key which has not run yet. Can be
+     * called from any thread.
+     * @param key identifies what the update changes, for example "BOARD " and the name of a player
+     * @param update the update, which is run on the JavaFX thread
+     */
+    public void publish(Object key, Runnable update) {
+        synchronized (pending) {
+            publishedCount++;
+            if (pending.put(key, update) != null) {
+                droppedCount++;
+            }
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        Platform.runLater(timer::start);
+    }
+
+    /**
+     * Run every update waiting now, for example before switching scenes so the last updates are not lost. Must be
+     * called on the JavaFX thread.
+     */
+    public void flush() {
+        List<Runnable> updates;
+        synchronized (pending) {
+            updates = new ArrayList<>(pending.values());
+            pending.clear();
+            if (!updates.isEmpty()) {
+                frameCount++;
+            }
+            //Anything published while these updates run starts the timer again
+            scheduled = false;
+            timer.stop();
+        }
+        for (Runnable update : updates) {
+            update.run();
+        }
+    }
+
+    /**
+     * Get the number of updates published
+     * @return the number of updates
+     */
+    public long getPublishedCount() {
+        synchronized (pending) {
+            return publishedCount;
+        }
+    }
+
+    /**
+     * Get the number of updates which were replaced before they ran
+     * @return the number of updates
+     */
+    public long getDroppedCount() {
+        synchronized (pending) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * Get the number of frames which ran at least one update
+     * @return the number of frames
+     */
+    public long getFrameCount() {
+        synchronized (pending) {
+            return frameCount;
+        }
+    }
+
+}
@@ -11,9 +11,15 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
 import uk.ac.soton.comp1206.game.Game;
+import uk.ac.soton.comp1206.game.journal.JournalWriter;
+import uk.ac.soton.comp1206.game.journal.Replay;
+import uk.ac.soton.comp1206.multimedia.Multimedia;
 import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.scene.*;
+import uk.ac.soton.comp1206.score.ScoreStore;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 /**
@@ -26,6 +32,16 @@ import java.util.ArrayList;
 public class GameWindow {
 
     private static final Logger logger = LogManager.getLogger(GameWindow.class);
+
+    /**
+     * The system property which sets the size of the marathon board
+     */
+    public static final String MARATHON_SIZE_PROPERTY = "tetrecs.marathon.size";
+
+    /**
+     * The number of columns and rows of the marathon board when the property is not set
+     */
+    public static final int DEFAULT_MARATHON_SIZE = 20;
     private final int width;
     private final int height;
     private final Stage stage;
@@ -34,6 +50,21 @@ public class GameWindow {
     private Scene scene;
     final Communicator communicator;
 
+    /**
+     * The local high scores
+     */
+    private final ScoreStore scoreStore;
+
+    /**
+     * The local high scores of marathon games, which are kept apart as they are played on a larger board
+     */
+    private final ScoreStore marathonScoreStore;
+
+    /**
+     * Applies updates from the network to the display once per frame
+     */
+    private final FxUpdateCoalescer updateCoalescer = new FxUpdateCoalescer();
+
     /**
      * Create a new GameWindow attached to the given stage with the specified width and height
      * @param stage stage
@@ -58,6 +89,10 @@ public class GameWindow {
         //Setup communicator
         communicator = new Communicator("ws://ofb-labs.soton.ac.uk:9700");
 
+        //Open the local high scores, moving them over from Scores.txt the first time
+        scoreStore = new ScoreStore(Path.of("Scores.dat"), Path.of("Scores.txt"));
+        marathonScoreStore = new ScoreStore(Path.of("Marathon.dat"), null);
+
         //Go to menu
         //startMenu();
         loadGame();
@@ -83,6 +118,9 @@ public class GameWindow {
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"),32);
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"),32);
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"),32);
+
+        //Load the sound effects up front so playing one never has to decode the file
+        Multimedia.preloadSoundEffects();
     }
 
     /**
@@ -96,6 +134,8 @@ public class GameWindow {
      * Exits the game
      */
     public void exitGame() {
+        scoreStore.close();
+        marathonScoreStore.close();
         App.getInstance().shutdown();
     }
 
@@ -135,6 +175,39 @@ public class GameWindow {
      */
     public void startChallenge() { loadScene(new ChallengeScene(this)); }
 
+    /**
+     * Display the single player challenge on a large marathon board. The size can be changed with the
+     * tetrecs.marathon.size system property.
+     */
+    public void startMarathon() {
+        int size = Integer.getInteger(MARATHON_SIZE_PROPERTY, DEFAULT_MARATHON_SIZE);
+        if (size < ChallengeScene.DEFAULT_SIZE) {
+            logger.warn("Marathon size {} is too small, using {}", size, ChallengeScene.DEFAULT_SIZE);
+            size = ChallengeScene.DEFAULT_SIZE;
+        }
+        loadScene(new ChallengeScene(this, size, true));
+    }
+
+    /**
+     * Display a replay of the most recent game, from its journal
+     * @return true if there was a journal to replay
+     */
+    public boolean startReplay() {
+        try {
+            Path journal = JournalWriter.findNewest(Game.JOURNAL_DIRECTORY);
+            if (journal == null) {
+                logger.info("There are no journals to replay");
+                return false;
+            }
+            logger.info("Replaying {}", journal);
+            loadScene(new ReplayScene(this, Replay.read(journal)));
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Could not replay the last game: {}", e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Setup the default settings for the stage itself (the window), such as the title and minimum width and height.
      */
@@ -177,6 +250,7 @@ public class GameWindow {
     public void cleanup() {
         logger.info("Clearing up previous scene");
         communicator.clearListeners();
+        updateCoalescer.flush();
     }
 
     /**
@@ -210,4 +284,21 @@ public class GameWindow {
     public Communicator getCommunicator() {
         return communicator;
     }
+
+    /**
+     * Get the coalescer which applies updates from the network to the display once per frame
+     * @return the update coalescer
+     */
+    public FxUpdateCoalescer getUpdateCoalescer() {
+        return updateCoalescer;
+    }
+
+    /**
+     * Get the local high scores for a game. Marathon games have their own high scores.
+     * @param game the game
+     * @return the score store
+     */
+    public ScoreStore getScoreStore(Game game) {
+        return game.isMarathon() ? marathonScoreStore : scoreStore;
+    }
 }
@@ -0,0 +1,177 @@
+package uk.ac.soton.comp1206.score;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that scores survive reopening the file, and that a damaged file is opened without losing the good scores
+ */
+class ScoreStoreTest {
+
+    /**
+     * The size of the header in the file
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Where the number of records is kept in the header
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    /**
+     * The size of every record in the file
+     */
+    private static final int RECORD_SIZE = 64;
+
+    /**
+     * The number of scores saved in a new file
+     */
+    private static final int DEFAULT_SCORES = 3;
+
+    /**
+     * A directory for the scores file, deleted after every test
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Scores are read back in order after reopening, including after the file has grown
+     */
+    @Test
+    void roundTrip() {
+        Path file = directory.resolve("Scores.dat");
+        ScoreStore store = new ScoreStore(file, null);
+        for (int i = 0; i < 100; i++) {
+            store.add("Player" + i, i * 10);
+        }
+        List<ScoreEntry> top = store.getTopScores(20);
+        int size = store.size();
+        store.close();
+
+        ScoreStore reopened = new ScoreStore(file, null);
+        assertEquals(size, reopened.size());
+        assertEquals(DEFAULT_SCORES + 100, reopened.size());
+        assertEquals(top, reopened.getTopScores(20));
+        assertEquals(990, reopened.getHighScore());
+        reopened.close();
+    }
+
+    /**
+     * A record which does not match its checksum is skipped, and scores saved afterwards are kept
+     */
+    @Test
+    void corruptRecordIsSkipped() throws IOException {
+        Path file = directory.resolve("Scores.dat");
+        ScoreStore store = new ScoreStore(file, null);
+        store.add("Top", 5000);
+        store.close();
+
+        //Break the name of the last record
+        writeBytes(file, HEADER_SIZE + DEFAULT_SCORES * RECORD_SIZE + 8, new byte[] {'X'});
+
+        ScoreStore reopened = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES, reopened.size());
+        assertFalse(reopened.getTopScores(10).contains(new ScoreEntry("Top", 5000)));
+        reopened.add("After", 100);
+        reopened.close();
+
+        ScoreStore again = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES + 1, again.size());
+        assertEquals(100, again.getTopScores(10).stream()
+                .filter(entry -> entry.name().equals("After")).findFirst().orElseThrow().score());
+        again.close();
+    }
+
+    /**
+     * A file cut short after the header has no room for records, but can still be saved to
+     */
+    @Test
+    void headerOnlyFile() throws IOException {
+        Path file = directory.resolve("Scores.dat");
+        new ScoreStore(file, null).close();
+        truncate(file, HEADER_SIZE);
+
+        ScoreStore reopened = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES, reopened.size());
+        reopened.add("After", 100);
+        reopened.close();
+
+        ScoreStore again = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES + 1, again.size());
+        again.close();
+    }
+
+    /**
+     * A file cut short part way through a record keeps every whole record before it
+     */
+    @Test
+    void shortFile() throws IOException {
+        Path file = directory.resolve("Scores.dat");
+        new ScoreStore(file, null).close();
+        truncate(file, HEADER_SIZE + RECORD_SIZE + RECORD_SIZE / 2);
+
+        ScoreStore reopened = new ScoreStore(file, null);
+        assertEquals(1, reopened.size());
+        reopened.add("After", 100);
+        reopened.close();
+
+        ScoreStore again = new ScoreStore(file, null);
+        assertEquals(2, again.size());
+        again.close();
+    }
+
+    /**
+     * A count in the header larger than the file only reads the records the file has room for
+     */
+    @Test
+    void countBeyondCapacity() throws IOException {
+        Path file = directory.resolve("Scores.dat");
+        new ScoreStore(file, null).close();
+        writeBytes(file, COUNT_OFFSET, ByteBuffer.allocate(4).putInt(1_000_000).array());
+
+        ScoreStore reopened = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES, reopened.size());
+        reopened.add("After", 100);
+        reopened.close();
+
+        ScoreStore again = new ScoreStore(file, null);
+        assertEquals(DEFAULT_SCORES + 1, again.size());
+        again.close();
+    }
+
+    /**
+     * Write over some bytes of a file
+     * @param file the file
+     * @param position where to write
+     * @param bytes the bytes to write
+     * @throws IOException if the file could not be written
+     */
+    private static void writeBytes(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    /**
+     * Cut a file short
+     * @param file the file
+     * @param size the size to cut it to
+     * @throws IOException if the file could not be written
+     */
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+}